@@ -0,0 +1,217 @@
+package se.emilsjolander.flipview;
+
+import android.os.AsyncTask;
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * Holds the item list of a {@link FlipView} adapter and replaces it with new
+ * lists by computing the difference on a background executor. The result is
+ * applied on the main thread as granular updates, so the page being read
+ * stays on its item and only the pages whose items changed are rebound.
+ * <p>
+ * The adapter should return getCurrentList().size() as its count and read
+ * its items from getCurrentList(). It must not call notifyDataSetChanged for
+ * lists submitted here.
+ *
+ * @param <T> the item type
+ */
+public class AsyncFlipListDiffer<T> {
+
+    /**
+     * Decides how items of the old and new list relate, called on the
+     * background executor.
+     */
+    public interface ItemCallback<T> {
+
+        /**
+         * @return true if both represent the same item, usually by id
+         */
+        boolean areItemsTheSame(T oldItem, T newItem);
+
+        /**
+         * Only called for items that are the same.
+         *
+         * @return true if the item looks the same, so its page does not have
+         * to be rebound
+         */
+        boolean areContentsTheSame(T oldItem, T newItem);
+    }
+
+    // above this many inserted plus removed items the whole data set is
+    // reloaded instead, the diff would cost more than it saves
+    private static final int MAX_EDIT_DISTANCE = 1000;
+
+    private final FlipView mFlipView;
+    private final ItemCallback<T> mItemCallback;
+    private final Executor mExecutor;
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+
+    private List<T> mList = Collections.emptyList();
+    // diffs of lists submitted before the latest one are dropped
+    private int mGeneration;
+
+    /**
+     * Diffs on {@link AsyncTask#THREAD_POOL_EXECUTOR}.
+     */
+    public AsyncFlipListDiffer(FlipView flipView, ItemCallback<T> itemCallback) {
+        this(flipView, itemCallback, AsyncTask.THREAD_POOL_EXECUTOR);
+    }
+
+    public AsyncFlipListDiffer(FlipView flipView, ItemCallback<T> itemCallback, Executor executor) {
+        mFlipView = flipView;
+        mItemCallback = itemCallback;
+        mExecutor = executor;
+    }
+
+    /**
+     * @return the list currently shown, never modify it
+     */
+    public List<T> getCurrentList() {
+        return mList;
+    }
+
+    /**
+     * Replaces the current list once the difference has been computed. The
+     * new list must not be modified afterwards.
+     *
+     * @param newList the new list, null for an empty one
+     */
+    public void submitList(List<T> newList) {
+        final List<T> list = newList == null ? Collections.<T>emptyList() : newList;
+        final List<T> oldList = mList;
+        final int generation = ++mGeneration;
+        if (list == oldList) {
+            return;
+        }
+        if (oldList.isEmpty() || list.isEmpty()) {
+            // nothing to keep the reader on, reload at once
+            final PageUpdates updates = new PageUpdates();
+            updates.setFullUpdate();
+            apply(list, updates);
+            return;
+        }
+
+        mExecutor.execute(new Runnable() {
+
+            @Override
+            public void run() {
+                final PageUpdates updates = diff(oldList, list);
+                mHandler.post(new Runnable() {
+
+                    @Override
+                    public void run() {
+                        if (generation == mGeneration) {
+                            apply(list, updates);
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    private void apply(List<T> list, PageUpdates updates) {
+        mList = list;
+        mFlipView.applyPageUpdates(updates);
+    }
+
+    /**
+     * Myers' difference algorithm, recording the furthest reaching paths of
+     * every edit step so the edit script can be walked back from the end.
+     * Updates are recorded back to front, then every position before an
+     * update is still the same in the old and new list.
+     */
+    PageUpdates diff(List<T> oldList, List<T> newList) {
+        final int n = oldList.size();
+        final int m = newList.size();
+        final int max = Math.min(n + m, MAX_EDIT_DISTANCE);
+        final int offset = max + 1;
+        final int[] v = new int[2 * max + 3];
+        final int[][] trace = new int[max + 1][];
+
+        int editDistance = -1;
+        for (int d = 0; d <= max && editDistance < 0; d++) {
+            for (int k = -d; k <= d; k += 2) {
+                int x;
+                if (k == -d || (k != d && v[offset + k - 1] < v[offset + k + 1])) {
+                    x = v[offset + k + 1];
+                } else {
+                    x = v[offset + k - 1] + 1;
+                }
+                int y = x - k;
+                while (x < n && y < m && mItemCallback.areItemsTheSame(oldList.get(x), newList.get(y))) {
+                    x++;
+                    y++;
+                }
+                v[offset + k] = x;
+                if (x >= n && y >= m) {
+                    editDistance = d;
+                    break;
+                }
+            }
+            // only the diagonals reachable in this step are needed later
+            trace[d] = new int[2 * d + 1];
+            System.arraycopy(v, offset - d, trace[d], 0, 2 * d + 1);
+        }
+
+        final PageUpdates updates = new PageUpdates();
+        if (editDistance < 0) {
+            updates.setFullUpdate();
+            return updates;
+        }
+
+        int x = n;
+        int y = m;
+        int changeEnd = -1;
+        for (int d = editDistance; d >= 0; d--) {
+            final int k = x - y;
+            int prevK;
+            if (d == 0) {
+                prevK = 0;
+            } else if (k == -d || (k != d && trace[d - 1][k - 1 + d - 1] < trace[d - 1][k + 1 + d - 1])) {
+                prevK = k + 1;
+            } else {
+                prevK = k - 1;
+            }
+            final int prevX = d == 0 ? 0 : trace[d - 1][prevK + d - 1];
+            final int prevY = prevX - prevK;
+
+            // the diagonal of matching items, record the changed ones as ranges
+            final int snakeX = d == 0 ? 0 : (prevK == k + 1 ? prevX : prevX + 1);
+            while (x > snakeX) {
+                x--;
+                y--;
+                if (!mItemCallback.areContentsTheSame(oldList.get(x), newList.get(y))) {
+                    if (changeEnd < 0) {
+                        changeEnd = x + 1;
+                    }
+                } else if (changeEnd >= 0) {
+                    updates.change(x + 1, changeEnd - x - 1);
+                    changeEnd = -1;
+                }
+            }
+            if (changeEnd >= 0) {
+                updates.change(x, changeEnd - x);
+                changeEnd = -1;
+            }
+
+            if (d > 0) {
+                if (prevK == k + 1) {
+                    // new[prevY] was inserted at prevX
+                    updates.add(prevX, 1);
+                } else {
+                    // old[prevX] was removed
+                    updates.remove(prevX, 1);
+                }
+            }
+            x = prevX;
+            y = prevY;
+        }
+        return updates;
+    }
+
+}
@@ -0,0 +1,112 @@
+package se.emilsjolander.flipview;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.view.ViewGroup;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Creates {@link FlipAdapter.ViewHolder}s and prepares their binding on a
+ * background executor. The results are handed back on the main thread,
+ * where the holder is bound and attached.
+ */
+class AsyncPageLoader {
+
+    interface Callback {
+
+        /**
+         * Called on the main thread, also for cancelled requests so their
+         * holders can be recycled.
+         */
+        void onPageLoaded(Request request);
+    }
+
+    static class Request implements Runnable {
+
+        final FlipAdapter<?> adapter;
+        final int position;
+        final int viewType;
+        FlipAdapter.ViewHolder holder;
+        Object prepared;
+        // creation or preparation threw, has to be redone on the main thread
+        boolean failed;
+        private volatile boolean mCancelled;
+        private final AsyncPageLoader mLoader;
+
+        Request(AsyncPageLoader loader, FlipAdapter<?> adapter, int position, int viewType,
+                FlipAdapter.ViewHolder holder) {
+            mLoader = loader;
+            this.adapter = adapter;
+            this.position = position;
+            this.viewType = viewType;
+            this.holder = holder;
+        }
+
+        void cancel() {
+            mCancelled = true;
+        }
+
+        boolean isCancelled() {
+            return mCancelled;
+        }
+
+        @Override
+        public void run() {
+            if (!mCancelled) {
+                try {
+                    if (holder == null) {
+                        holder = adapter.createViewHolder(mLoader.mParent, viewType);
+                    }
+                    prepared = adapter.prepareBind(position);
+                } catch (RuntimeException e) {
+                    // some views can only be created on a looper thread
+                    failed = true;
+                }
+            }
+            mLoader.mHandler.post(new Runnable() {
+
+                @Override
+                public void run() {
+                    mLoader.mCallback.onPageLoaded(Request.this);
+                }
+            });
+        }
+    }
+
+    // created when first used
+    private static class DefaultExecutor {
+        static final Executor INSTANCE = SerialExecutors.create("FlipView pages",
+                Process.THREAD_PRIORITY_DEFAULT);
+    }
+
+    private final ViewGroup mParent;
+    private final Callback mCallback;
+    private final Executor mExecutor;
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+
+    AsyncPageLoader(ViewGroup parent, Callback callback, Executor executor) {
+        mParent = parent;
+        mCallback = callback;
+        mExecutor = executor;
+    }
+
+    /**
+     * @return the serial executor pages are created on by default, shared by
+     * all FlipViews
+     */
+    static Executor getDefaultExecutor() {
+        return DefaultExecutor.INSTANCE;
+    }
+
+    /**
+     * @param holder a holder to bind again, null to create one
+     */
+    Request load(FlipAdapter<?> adapter, int position, int viewType, FlipAdapter.ViewHolder holder) {
+        final Request request = new Request(this, adapter, position, viewType, holder);
+        mExecutor.execute(request);
+        return request;
+    }
+
+}
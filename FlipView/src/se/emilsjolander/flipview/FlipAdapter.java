@@ -0,0 +1,163 @@
+package se.emilsjolander.flipview;
+
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.BaseAdapter;
+
+/**
+ * An adapter with separate create and bind phases. {@link FlipView} keeps the
+ * {@link ViewHolder} of every page and scrap, so flipping to a page only
+ * binds an existing holder and views are only created when nothing can be
+ * reused. It is also a regular ListAdapter, when used elsewhere the holder is
+ * kept as a tag on the view.
+ *
+ * @param <VH> the holder type
+ */
+public abstract class FlipAdapter<VH extends FlipAdapter.ViewHolder> extends BaseAdapter {
+
+    /**
+     * Holds a page view and the references into it, so binding does not have
+     * to look up the child views again.
+     */
+    public static class ViewHolder {
+
+        public final View itemView;
+        int position = -1;
+        int viewType;
+        boolean preview;
+        // the adapter that created this holder
+        FlipAdapter<?> adapter;
+
+        public ViewHolder(View itemView) {
+            if (itemView == null) {
+                throw new IllegalArgumentException("itemView may not be null");
+            }
+            this.itemView = itemView;
+        }
+
+        /**
+         * @return the position this holder was last bound to
+         */
+        public int getPosition() {
+            return position;
+        }
+
+        public int getItemViewType() {
+            return viewType;
+        }
+
+        /**
+         * @return true if only a preview is bound, see
+         * {@link FlipAdapter#onBindPreview(ViewHolder, int)}
+         */
+        public boolean isPreview() {
+            return preview;
+        }
+    }
+
+    /**
+     * Create a holder with a new view of the given type, called only when
+     * there is no holder of this type to reuse. With
+     * {@link FlipView#setAsyncPageCreation(boolean)} this is called on a
+     * background thread, only inflate and do not touch views that are
+     * attached.
+     */
+    public abstract VH onCreateViewHolder(ViewGroup parent, int viewType);
+
+    /**
+     * Show the item at position in the holder.
+     */
+    public abstract void onBindViewHolder(VH holder, int position);
+
+    /**
+     * Load or decode what binding the item needs. With
+     * {@link FlipView#setAsyncPageCreation(boolean)} this is called on a
+     * background thread, otherwise right before binding.
+     *
+     * @return passed on to {@link #onBindViewHolder(ViewHolder, int, Object)}
+     */
+    public Object onPrepareBind(int position) {
+        return null;
+    }
+
+    /**
+     * Show the item at position in the holder, using what
+     * {@link #onPrepareBind(int)} returned. Calls
+     * {@link #onBindViewHolder(ViewHolder, int)} by default.
+     */
+    public void onBindViewHolder(VH holder, int position, Object prepared) {
+        onBindViewHolder(holder, position);
+    }
+
+    /**
+     * Bind a cheap preview of the item, for example without images, to a page
+     * that enters while a flip is in progress. Such a page is only seen
+     * briefly and mostly as a turning half. It is bound with
+     * {@link #onBindViewHolder(ViewHolder, int, Object)} once the flip has
+     * landed.
+     *
+     * @return true if a preview was bound, false (default) to bind the item
+     * fully right away
+     */
+    public boolean onBindPreview(VH holder, int position) {
+        return false;
+    }
+
+    /**
+     * @return a cheap view shown in place of a page that is still being
+     * created with {@link FlipView#setAsyncPageCreation(boolean)}
+     */
+    public View onCreatePlaceholderView(ViewGroup parent) {
+        return new View(parent.getContext());
+    }
+
+    final VH createViewHolder(ViewGroup parent, int viewType) {
+        final VH holder = onCreateViewHolder(parent, viewType);
+        holder.viewType = viewType;
+        holder.adapter = this;
+        holder.itemView.setTag(R.id.flipview_view_holder, holder);
+        return holder;
+    }
+
+    final Object prepareBind(int position) {
+        return onPrepareBind(position);
+    }
+
+    final void bindViewHolder(ViewHolder holder, int position) {
+        bindViewHolder(holder, position, onPrepareBind(position));
+    }
+
+    @SuppressWarnings("unchecked")
+    final void bindViewHolder(ViewHolder holder, int position, Object prepared) {
+        holder.position = position;
+        holder.preview = false;
+        onBindViewHolder((VH) holder, position, prepared);
+    }
+
+    /**
+     * @return true if a preview was bound
+     */
+    @SuppressWarnings("unchecked")
+    final boolean bindPreview(ViewHolder holder, int position) {
+        holder.position = position;
+        holder.preview = onBindPreview((VH) holder, position);
+        return holder.preview;
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return position;
+    }
+
+    @Override
+    public final View getView(int position, View convertView, ViewGroup parent) {
+        ViewHolder holder = convertView == null ? null
+                : (ViewHolder) convertView.getTag(R.id.flipview_view_holder);
+        if (holder == null || holder.viewType != getItemViewType(position)) {
+            holder = createViewHolder(parent, getItemViewType(position));
+        }
+        bindViewHolder(holder, position);
+        return holder.itemView;
+    }
+
+}
@@ -0,0 +1,305 @@
+package se.emilsjolander.flipview;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.view.Choreographer;
+import android.widget.ListAdapter;
+
+import java.util.Arrays;
+
+/**
+ * Collects the listener events of a {@link FlipView} and delivers them once
+ * per frame. Only the latest state of each event is delivered, the flip
+ * distances passed in between are kept in a reused primitive array for
+ * listeners that want every sample. Nothing is allocated per event.
+ */
+class FlipEventDispatcher implements Runnable {
+
+    private static final int NO_PAGE = -1;
+    private static final int INITIAL_SAMPLE_CAPACITY = 8;
+
+    private final FlipView mFlipView;
+    private final FrameCallback mFrameCallback;
+    private boolean mIsScheduled;
+    private boolean mIsAttached = true;
+
+    private FlipView.OnFlipListener mOnFlipListener;
+    private FlipView.OnDistanceListener mOnDistanceListener;
+    private FlipView.OnDistanceSamplesListener mOnDistanceSamplesListener;
+    private FlipView.OnOverFlipListener mOnOverFlipListener;
+    private FlipView.OnDistanceThresholdListener mOnDistanceThresholdListener;
+
+    // pending distance events
+    private boolean mHasDistance;
+    private float mDistance;
+    private float[] mDistanceSamples = new float[INITIAL_SAMPLE_CAPACITY];
+    private int mDistanceSampleCount;
+
+    // sorted thresholds, and the crossed ones encoded as (index << 1) | forward
+    private float[] mThresholds;
+    private float mLastThresholdDistance = Float.NaN;
+    private int[] mCrossings = new int[INITIAL_SAMPLE_CAPACITY];
+    private int mCrossingCount;
+
+    // pending page landed event
+    private int mFlippedToPage = NO_PAGE;
+
+    // pending over flip events
+    private boolean mHasOverFlip;
+    private boolean mHasOverFlipEnded;
+    private OverFlipMode mOverFlipMode;
+    private boolean mOverFlippingPrevious;
+    private float mOverFlipDistance;
+    private float mFlipDistancePerPage;
+
+    FlipEventDispatcher(FlipView flipView) {
+        mFlipView = flipView;
+        mFrameCallback = Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN
+                ? new FrameCallback() : null;
+    }
+
+    /**
+     * Choreographer is only available from Jelly Bean, kept in its own class
+     * so older versions never load it.
+     */
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+    private class FrameCallback implements Choreographer.FrameCallback {
+
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            FlipEventDispatcher.this.run();
+        }
+
+        void post() {
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+
+        void remove() {
+            Choreographer.getInstance().removeFrameCallback(this);
+        }
+    }
+
+    void setOnFlipListener(FlipView.OnFlipListener onFlipListener) {
+        mOnFlipListener = onFlipListener;
+    }
+
+    void setOnDistanceListener(FlipView.OnDistanceListener onDistanceListener) {
+        mOnDistanceListener = onDistanceListener;
+    }
+
+    void setOnDistanceSamplesListener(FlipView.OnDistanceSamplesListener onDistanceSamplesListener) {
+        mOnDistanceSamplesListener = onDistanceSamplesListener;
+    }
+
+    void setOnOverFlipListener(FlipView.OnOverFlipListener onOverFlipListener) {
+        mOnOverFlipListener = onOverFlipListener;
+    }
+
+    void setOnDistanceThresholdListener(float[] thresholds,
+                                        FlipView.OnDistanceThresholdListener onDistanceThresholdListener) {
+        if (onDistanceThresholdListener == null || thresholds == null || thresholds.length == 0) {
+            mThresholds = null;
+            mOnDistanceThresholdListener = null;
+        } else {
+            mThresholds = thresholds.clone();
+            Arrays.sort(mThresholds);
+            mOnDistanceThresholdListener = onDistanceThresholdListener;
+        }
+        mLastThresholdDistance = Float.NaN;
+        mCrossingCount = 0;
+    }
+
+    void dispatchDistance(float distance) {
+        if (mOnDistanceThresholdListener != null) {
+            findCrossings(distance);
+        }
+        if (mOnDistanceListener == null && mOnDistanceSamplesListener == null) {
+            return;
+        }
+        mHasDistance = true;
+        mDistance = distance;
+        if (mOnDistanceSamplesListener != null) {
+            if (mDistanceSampleCount == mDistanceSamples.length) {
+                final float[] samples = new float[mDistanceSamples.length * 2];
+                System.arraycopy(mDistanceSamples, 0, samples, 0, mDistanceSampleCount);
+                mDistanceSamples = samples;
+            }
+            mDistanceSamples[mDistanceSampleCount++] = distance;
+        }
+        schedule();
+    }
+
+    /**
+     * A threshold counts as passed while the distance is at or beyond it, so
+     * the thresholds crossed are the ones between the upper bounds of the
+     * previous and the new distance.
+     */
+    private void findCrossings(float distance) {
+        final float last = mLastThresholdDistance;
+        mLastThresholdDistance = distance;
+        if (Float.isNaN(last) || last == distance) {
+            return;
+        }
+        final int from = upperBound(mThresholds, last);
+        final int to = upperBound(mThresholds, distance);
+        if (from < to) {
+            for (int i = from; i < to; i++) {
+                addCrossing(i, true);
+            }
+        } else {
+            for (int i = from - 1; i >= to; i--) {
+                addCrossing(i, false);
+            }
+        }
+    }
+
+    /**
+     * @return the number of thresholds smaller than or equal to the value
+     */
+    private static int upperBound(float[] thresholds, float value) {
+        int low = 0;
+        int high = thresholds.length;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (thresholds[mid] <= value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private void addCrossing(int index, boolean forward) {
+        if (mCrossingCount == mCrossings.length) {
+            final int[] crossings = new int[mCrossings.length * 2];
+            System.arraycopy(mCrossings, 0, crossings, 0, mCrossingCount);
+            mCrossings = crossings;
+        }
+        mCrossings[mCrossingCount++] = (index << 1) | (forward ? 1 : 0);
+        schedule();
+    }
+
+    void dispatchFlippedToPage(int page) {
+        mFlippedToPage = page;
+        schedule();
+    }
+
+    void dispatchOverFlip(OverFlipMode mode, boolean overFlippingPrevious,
+                          float overFlipDistance, float flipDistancePerPage) {
+        if (mOnOverFlipListener == null) {
+            return;
+        }
+        mHasOverFlip = true;
+        mHasOverFlipEnded = false;
+        mOverFlipMode = mode;
+        mOverFlippingPrevious = overFlippingPrevious;
+        mOverFlipDistance = overFlipDistance;
+        mFlipDistancePerPage = flipDistancePerPage;
+        schedule();
+    }
+
+    void dispatchOverFlipEnded(OverFlipMode mode, float flipDistancePerPage) {
+        if (mOnOverFlipListener == null) {
+            return;
+        }
+        mHasOverFlip = false;
+        mHasOverFlipEnded = true;
+        mOverFlipMode = mode;
+        mFlipDistancePerPage = flipDistancePerPage;
+        schedule();
+    }
+
+    void onAttachedToWindow() {
+        mIsAttached = true;
+        if (mIsScheduled) {
+            mIsScheduled = false;
+            schedule();
+        }
+    }
+
+    void onDetachedFromWindow() {
+        // keep the pending events, they are delivered once attached again
+        if (mIsScheduled) {
+            if (mFrameCallback != null) {
+                mFrameCallback.remove();
+            } else {
+                mFlipView.removeCallbacks(this);
+            }
+        }
+        mIsAttached = false;
+    }
+
+    private void schedule() {
+        if (mIsScheduled) {
+            return;
+        }
+        mIsScheduled = true;
+        if (!mIsAttached) {
+            return;
+        }
+        if (mFrameCallback != null) {
+            mFrameCallback.post();
+        } else {
+            mFlipView.post(this);
+        }
+    }
+
+    @Override
+    public void run() {
+        mIsScheduled = false;
+
+        if (mHasDistance) {
+            mHasDistance = false;
+            if (mOnDistanceListener != null) {
+                mOnDistanceListener.onDistanceChange(mDistance);
+            }
+            if (mOnDistanceSamplesListener != null && mDistanceSampleCount > 0) {
+                mOnDistanceSamplesListener.onDistanceSamples(mFlipView,
+                        mDistanceSamples, mDistanceSampleCount);
+            }
+            mDistanceSampleCount = 0;
+        }
+
+        if (mCrossingCount > 0) {
+            final int count = mCrossingCount;
+            mCrossingCount = 0;
+            if (mOnDistanceThresholdListener != null) {
+                for (int i = 0; i < count; i++) {
+                    final int crossing = mCrossings[i];
+                    mOnDistanceThresholdListener.onDistanceThresholdCrossed(mFlipView,
+                            mThresholds[crossing >> 1], (crossing & 1) == 1);
+                }
+            }
+        }
+
+        if (mHasOverFlipEnded) {
+            mHasOverFlipEnded = false;
+            if (mOnOverFlipListener != null) {
+                // TODO in the future should only notify flip distance 0
+                // on the correct edge (previous/next)
+                mOnOverFlipListener.onOverFlip(mFlipView, mOverFlipMode,
+                        false, 0, mFlipDistancePerPage);
+                mOnOverFlipListener.onOverFlip(mFlipView, mOverFlipMode,
+                        true, 0, mFlipDistancePerPage);
+            }
+        }
+        if (mHasOverFlip) {
+            mHasOverFlip = false;
+            if (mOnOverFlipListener != null) {
+                mOnOverFlipListener.onOverFlip(mFlipView, mOverFlipMode,
+                        mOverFlippingPrevious, mOverFlipDistance, mFlipDistancePerPage);
+            }
+        }
+
+        if (mFlippedToPage != NO_PAGE) {
+            final int page = mFlippedToPage;
+            mFlippedToPage = NO_PAGE;
+            final ListAdapter adapter = mFlipView.getAdapter();
+            if (mOnFlipListener != null && adapter != null) {
+                final long itemId = page >= adapter.getCount() ? 0 : adapter.getItemId(page);
+                mOnFlipListener.onFlippedToPage(mFlipView, page, itemId);
+            }
+        }
+    }
+}
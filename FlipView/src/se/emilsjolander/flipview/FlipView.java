@@ -5,7 +5,10 @@ import android.animation.AnimatorListenerAdapter;
 import android.animation.TimeInterpolator;
 import android.animation.ValueAnimator;
 import android.animation.ValueAnimator.AnimatorUpdateListener;
+import android.annotation.TargetApi;
+import android.content.ComponentCallbacks2;
 import android.content.Context;
+import android.content.res.Configuration;
 import android.content.res.TypedArray;
 import android.database.DataSetObserver;
 import android.graphics.Bitmap;
@@ -34,7 +37,11 @@ import android.widget.Scroller;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
 
 import se.emilsjolander.flipview.Recycler.Scrap;
 
@@ -48,12 +55,60 @@ public class FlipView extends FrameLayout {
         public void onDistanceChange(float distance);
     }
 
+    public interface OnDistanceSamplesListener {
+        /**
+         * @param samples every flip distance passed since the last frame, only
+         *                valid until this method returns
+         * @param count   the number of samples in the array
+         */
+        public void onDistanceSamples(FlipView v, float[] samples, int count);
+    }
+
+    public interface OnDistanceThresholdListener {
+        /**
+         * @param threshold the flip distance that was crossed
+         * @param forward   true if the threshold was passed flipping forward,
+         *                  false if flipping backwards
+         */
+        public void onDistanceThresholdCrossed(FlipView v, float threshold, boolean forward);
+    }
+
     public interface OnOverFlipListener {
         public void onOverFlip(FlipView v, OverFlipMode mode,
                                boolean overFlippingPrevious, float overFlipDistance,
                                float flipDistancePerPage);
     }
 
+    /**
+     * Follows the active pages, at most the previous, current and next one.
+     * Use it to pause videos and animations on pages nobody can see.
+     */
+    public interface OnPageLifecycleListener {
+        /**
+         * The page is bound and one of the active pages, it starts hidden.
+         */
+        public void onPageAttached(FlipView v, int position, View page);
+
+        /**
+         * @param visibleFraction how much of the page can be seen, 0 - 1
+         *                        exclusive
+         */
+        public void onPagePartiallyVisible(FlipView v, int position, View page, float visibleFraction);
+
+        public void onPageFullyVisible(FlipView v, int position, View page);
+
+        public void onPageHidden(FlipView v, int position, View page);
+
+        /**
+         * The page is no longer active and will be recycled.
+         */
+        public void onPageDetached(FlipView v, int position, View page);
+    }
+
+    public interface OnMemoryStatsListener {
+        public void onMemoryStats(FlipView v, MemoryStats stats);
+    }
+
     /**
      * @author emilsjolander
      * <p>
@@ -61,6 +116,10 @@ public class FlipView extends FrameLayout {
      */
     static class Page {
         View v;
+        // only set for pages of a FlipAdapter
+        FlipAdapter.ViewHolder holder;
+        // set while v is a placeholder for a holder being created
+        AsyncPageLoader.Request request;
         int position;
         int viewType;
         boolean valid;
@@ -83,6 +142,25 @@ public class FlipView extends FrameLayout {
         }
     }
 
+    /**
+     * Draws the over flip effects. As a child of its own it has its own
+     * display list, so an animating glow only redraws this view and not the
+     * pages below it. Always the first child of the FlipView.
+     */
+    private class OverFlipView extends View {
+
+        OverFlipView(Context context) {
+            super(context);
+        }
+
+        @Override
+        protected void onDraw(Canvas canvas) {
+            if (mOverFlipper.draw(canvas)) {
+                invalidate();
+            }
+        }
+    }
+
     // animation property for ObjectAnimator
     public static final String FLIP_DISTANCE = "flipDistance";
 
@@ -94,9 +172,14 @@ public class FlipView extends FrameLayout {
     private static final int INVALID_FLIP_DISTANCE = -1;
 
     private static final int PEAK_ANIM_DURATION = 600;// in ms
+    // how far ahead the touch velocity is projected for prefetch hints
+    private static final int PREFETCH_LOOKAHEAD = 300;// in ms
+    private static final float DEFAULT_FAST_FLIP_VELOCITY = 5f;// in pages per second
 
     // for normalizing width/height
     private static final int FLIP_DISTANCE_PER_PAGE = 180;
+    // Scroller positions are ints, scaled for sub unit precision
+    private static final int SCROLL_UNITS_PER_FLIP_DISTANCE = 16;
     private static final int MAX_SHADOW_ALPHA = 127;// out of 255
     private static final int MAX_GRADIENT_ALPHA = 255;// out of 255
     private static final int MAX_SHADE_ALPHA = 130;// out of 255
@@ -116,7 +199,11 @@ public class FlipView extends FrameLayout {
 
         @Override
         public void onChanged() {
-            dataSetChanged();
+            if (mBatchUpdateDepth > 0) {
+                mPageUpdates.setFullUpdate();
+            } else {
+                dataSetChanged();
+            }
         }
 
         @Override
@@ -147,12 +234,32 @@ public class FlipView extends FrameLayout {
     private int mCascadeFlipDuration = 1000;
     private int mCascadeEndFlipDistance = -1;
     private List<View> mCascadeViews = new ArrayList<>();
+    // cascade views skipped by the current measure or layout pass
+    private final Set<View> mOffScreenCascadeViews =
+            Collections.newSetFromMap(new IdentityHashMap<View, Boolean>());
     private boolean mIsCascadeAnimationPrepared = true;
 
     // distance listener
-    private OnDistanceListener mOnDistanceListener;
     private boolean mIsFlippingToDistance = false;
 
+    // releases resources when the system is low on memory, see trimMemory
+    private final ComponentCallbacks2 mComponentCallbacks = new ComponentCallbacks2() {
+
+        @Override
+        public void onTrimMemory(int level) {
+            trimMemory(level);
+        }
+
+        @Override
+        public void onLowMemory() {
+            trimMemory(TRIM_MEMORY_COMPLETE);
+        }
+
+        @Override
+        public void onConfigurationChanged(Configuration newConfig) {
+        }
+    };
+
     // api 18
     private Bitmap mBitmap;
     private Canvas mCanvas;
@@ -167,6 +274,63 @@ public class FlipView extends FrameLayout {
     private float mLastY = -1;
     private int mActivePointerId = INVALID_POINTER;
 
+    // touch samples are applied to the flip distance once per frame
+    private boolean mHasPendingFlipDistance;
+    private float mPendingFlipDistance;
+    // the real touch position relative to mFlipPage while dragging, without prediction
+    private float mTouchFlipDistance;
+    private int mTouchPredictionHorizon = 0;// in ms, 0 disables prediction
+
+    // pages last hinted to a PrefetchAdapter
+    private int mPrefetchDistance = 2;
+    private int mPrefetchFirst = INVALID_PAGE_POSITION;
+    private int mPrefetchLast = INVALID_PAGE_POSITION;
+    private boolean mPrefetchForward = true;
+
+    // page lifecycle, updated after every frame that was drawn
+    private OnPageLifecycleListener mOnPageLifecycleListener;
+    private final PageLifecycleTracker mPageLifecycleTracker = new PageLifecycleTracker();
+    private final View[] mLifecycleViews = new View[3];
+    private final int[] mLifecyclePositions = new int[3];
+    private final float[] mLifecycleFractions = new float[3];
+    private boolean mIsPageLifecyclePosted;
+    private final Runnable mUpdatePageLifecycle = new Runnable() {
+        @Override
+        public void run() {
+            mIsPageLifecyclePosted = false;
+            updatePageLifecycle(false);
+        }
+    };
+
+    // memory stats, reported periodically while attached
+    private OnMemoryStatsListener mOnMemoryStatsListener;
+    private long mMemoryStatsInterval;
+    private final Runnable mReportMemoryStats = new Runnable() {
+        @Override
+        public void run() {
+            if (mOnMemoryStatsListener != null) {
+                mOnMemoryStatsListener.onMemoryStats(FlipView.this, getMemoryStats());
+                postDelayed(this, mMemoryStatsInterval);
+            }
+        }
+    };
+
+    private boolean mIsFullBindPosted;
+    private final Runnable mFullBindPreviewPages = new Runnable() {
+        @Override
+        public void run() {
+            mIsFullBindPosted = false;
+            // wait for the next landing if a new flip started meanwhile
+            if (isFlipInProgress()) {
+                return;
+            }
+            fullBindPreviewPage(mCurrentPage);
+            fullBindPreviewPage(mPreviousPage);
+            fullBindPreviewPage(mNextPage);
+            invalidate();
+        }
+    };
+
     // velocity stuff
     private VelocityTracker mVelocityTracker;
     private int mMinimumVelocity;
@@ -181,17 +345,42 @@ public class FlipView extends FrameLayout {
     private Page mCurrentPage = new Page();
     private Page mNextPage = new Page();
     private View mEmptyView;
+    // granular adapter changes reported through the notifyItem methods
+    private final PageUpdates mPageUpdates = new PageUpdates();
+    // while > 0 all adapter changes are collected and applied at the end
+    private int mBatchUpdateDepth;
+
+    // null unless pages of a FlipAdapter are created off the UI thread
+    private AsyncPageLoader mAsyncPageLoader;
+    private final List<View> mPlaceholderViews = new ArrayList<>();
+    private final AsyncPageLoader.Callback mAsyncPageCallback = new AsyncPageLoader.Callback() {
 
-    private OnFlipListener mOnFlipListener;
-    private OnOverFlipListener mOnOverFlipListener;
+        @Override
+        public void onPageLoaded(AsyncPageLoader.Request request) {
+            asyncPageLoaded(request);
+        }
+    };
+
+    // listener events are delivered once per frame
+    private final FlipEventDispatcher mEventDispatcher = new FlipEventDispatcher(this);
 
+    // the flip position is mFlipPage plus the in page offset mFlipDistance,
+    // which is kept within half a page so it never loses float precision.
+    // When flipping cascade mFlipPage is 0 and mFlipDistance is the cascade
+    // flip distance.
+    private int mFlipPage = 0;
     private float mFlipDistance = INVALID_FLIP_DISTANCE;
+    // the page the Scroller and the over flip release are relative to
+    private int mScrollFlipPage;
+    private int mReleaseFlipPage;
     private int mCurrentPageIndex = INVALID_PAGE_POSITION;
     private int mLastDispatchedPageEventIndex = 0;
     private long mCurrentPageId = 0;
 
     private OverFlipMode mOverFlipMode;
     private OverFlipper mOverFlipper;
+    private boolean mIsReleasingOverFlip;
+    private final OverFlipView mOverFlipView = new OverFlipView(getContext());
 
     // clipping rects
     private Rect mTopRect = new Rect();
@@ -214,6 +403,56 @@ public class FlipView extends FrameLayout {
     private boolean mDrawGradient = true;
     private boolean mDrawOverFlip = true;
 
+    // lowers the quality while flips miss frames, null unless adaptive
+    private QualityGovernor mQualityGovernor;
+    private RenderQuality mRenderQuality = RenderQuality.FULL;
+    private RenderQuality mMinRenderQuality = RenderQuality.SNAPSHOT;
+    // the page is drawn live until its snapshot is ready
+    private final PageSnapshots mPageSnapshots = new PageSnapshots(new PageSnapshots.Callback() {
+
+        @Override
+        public void onSnapshotReady() {
+            invalidate();
+        }
+    });
+    private final Paint mSnapshotPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+    private final Rect mSnapshotRect = new Rect();
+
+    // the last viewed page from before a cold start, shown until a real page is
+    private PageSnapshotCache mSnapshotCache;
+    private Bitmap mColdStartSnapshot;
+    private long mColdStartSnapshotId;
+    private boolean mIsColdStart = true;
+    private final Set<Long> mSavedSnapshotIds = new HashSet<>();
+    private final PageSnapshotCache.Callback mColdStartSnapshotCallback = new PageSnapshotCache.Callback() {
+
+        @Override
+        public void onSnapshotLoaded(long id, Bitmap snapshot) {
+            if (mIsColdStart && snapshot != null) {
+                mColdStartSnapshot = snapshot;
+                mColdStartSnapshotId = id;
+                updateEmptyStatus();
+                invalidate();
+            }
+        }
+    };
+    private boolean mIsSaveSnapshotPosted;
+    private final Runnable mSaveSnapshot = new Runnable() {
+        @Override
+        public void run() {
+            mIsSaveSnapshotPosted = false;
+            saveSnapshot();
+        }
+    };
+
+    // pages are drawn from reduced resolution snapshots during fast flips
+    private float mFastFlipScale = 1f;
+    private float mFastFlipVelocity = DEFAULT_FAST_FLIP_VELOCITY;// in pages per second
+    private boolean mIsFastFlip;
+    private float mFlipVelocity;// in pages per second, smoothed over frames
+    private long mLastFlipFrameTime;
+    private float mLastFlipFrameDistance;
+
     // flip part gradient colors
     private int mGradientColor0 = Color.BLACK;
     private int mGradientColor1 = Color.WHITE;
@@ -259,9 +498,22 @@ public class FlipView extends FrameLayout {
         mShinePaint.setColor(Color.WHITE);
         mShinePaint.setStyle(Style.FILL);
         mGradientPaint.setDither(true);
+
+        addView(mOverFlipView);
+    }
+
+    /**
+     * Removes the views of all pages and cascade views, the over flip view
+     * stays.
+     */
+    private void removePageViews() {
+        removeViews(1, getChildCount() - 1);
     }
 
     private void dataSetChanged() {
+        // the hinted positions no longer mean anything
+        cancelPrefetch();
+        mPageSnapshots.clear();
         final int currentPage = mCurrentPageIndex;
         mLastDispatchedPageEventIndex = -1;
         int newPosition = currentPage;
@@ -275,7 +527,7 @@ public class FlipView extends FrameLayout {
         }
 
         // clear cascade views
-        removeAllViews();
+        removePageViews();
         mCascadeViews.clear();
         mIsCascadeAnimationPrepared = false;
 
@@ -300,6 +552,8 @@ public class FlipView extends FrameLayout {
             mFlipDistance = INVALID_FLIP_DISTANCE;
             mPageCount = 0;
             setFlipDistance(0, true);
+            // the data has loaded and there is nothing to show
+            mColdStartSnapshot = null;
         }
 
         updateEmptyStatus();
@@ -325,13 +579,103 @@ public class FlipView extends FrameLayout {
         return mCurrentPageIndex;
     }
 
+    /**
+     * Moves the active pages to where their items are after the updates and
+     * rebinds only the ones whose items were removed or changed. Falls back
+     * to {@link #dataSetChanged()} when the current page itself is affected
+     * or the updates do not add up to the adapter count.
+     */
+    void applyPageUpdates(PageUpdates updates) {
+        if (mAdapter == null || updates.isEmpty()) {
+            return;
+        }
+        if (mBatchUpdateDepth > 0 && updates != mPageUpdates) {
+            mPageUpdates.addAll(updates);
+            return;
+        }
+        // changed pages are rebound in place
+        mPageSnapshots.clear();
+        final int oldPageIndex = mCurrentPageIndex;
+        final int newPageIndex = updates.isFullUpdate() || oldPageIndex == INVALID_PAGE_POSITION
+                ? PageUpdates.REMOVED : updates.mapPosition(oldPageIndex);
+        if (newPageIndex == PageUpdates.REMOVED || mIsFlippingCascade
+                || mPageCount + updates.getCountDelta() != mAdapter.getCount()) {
+            dataSetChanged();
+            return;
+        }
+
+        mPageCount = mAdapter.getCount();
+        mRecycler.setViewTypeCount(mAdapter.getViewTypeCount());
+
+        // keep the views of pages that are still active and unchanged
+        final Page[] slots = new Page[3];
+        final Page[] pages = {mPreviousPage, mCurrentPage, mNextPage};
+        for (Page p : pages) {
+            if (!p.valid) {
+                continue;
+            }
+            final int position = updates.mapPosition(p.position);
+            final int slot = position - newPageIndex + 1;
+            if (position == PageUpdates.REMOVED || updates.isChanged(p.position)
+                    || slot < 0 || slot > 2 || p.request != null) {
+                recyclePage(p);
+            } else {
+                p.position = position;
+                slots[slot] = p;
+            }
+        }
+        // scraps are keyed by their old positions
+        mRecycler.invalidateScraps();
+
+        int free = 0;
+        for (int slot = 0; slot < 3; slot++) {
+            if (slots[slot] != null) {
+                continue;
+            }
+            while (pages[free].valid) {
+                free++;
+            }
+            slots[slot] = pages[free++];
+            final int position = newPageIndex + slot - 1;
+            if (position >= 0 && position < mPageCount) {
+                fillPageForIndex(slots[slot], position);
+                addView(slots[slot].v);
+            }
+        }
+        mPreviousPage = slots[0];
+        mCurrentPage = slots[1];
+        mNextPage = slots[2];
+
+        // everything relative to pages moves along with the current page
+        final int shift = newPageIndex - oldPageIndex;
+        mCurrentPageIndex = newPageIndex;
+        mCurrentPageId = mAdapter.getItemId(newPageIndex);
+        mFlipPage += shift;
+        mScrollFlipPage += shift;
+        mReleaseFlipPage += shift;
+        if (mLastDispatchedPageEventIndex == oldPageIndex) {
+            mLastDispatchedPageEventIndex = newPageIndex;
+        }
+        if (mCascadeEndFlipDistance != INVALID_FLIP_DISTANCE) {
+            mCascadeEndFlipDistance += shift * FLIP_DISTANCE_PER_PAGE;
+            if (mCascadeEndFlipDistance > (mPageCount - 1) * FLIP_DISTANCE_PER_PAGE) {
+                endScroll();
+                mCascadeEndFlipDistance = INVALID_FLIP_DISTANCE;
+            }
+        }
+
+        updateEmptyStatus();
+        mEventDispatcher.dispatchDistance(getFlipDistance());
+        invalidate();
+    }
+
     private void dataSetInvalidated() {
         if (mAdapter != null) {
             mAdapter.unregisterDataSetObserver(dataSetObserver);
             mAdapter = null;
         }
         mRecycler = new Recycler();
-        removeAllViews();
+        removePageViews();
     }
 
     @Override
@@ -353,9 +697,20 @@ public class FlipView extends FrameLayout {
                 MeasureSpec.EXACTLY);
         int childHeightMeasureSpec = MeasureSpec.makeMeasureSpec(height,
                 MeasureSpec.EXACTLY);
+        updateOffScreenCascadeViews();
         final int childCount = getChildCount();
         for (int i = 0; i < childCount; i++) {
             final View child = getChildAt(i);
+            // hidden pages are measured once they are shown, see ensureLaidOut
+            if (child.getVisibility() == GONE || mOffScreenCascadeViews.contains(child)) {
+                continue;
+            }
+            // every child gets the same exact spec, so a child that already
+            // has this size and did not ask for a layout would not change
+            if (!child.isLayoutRequested() && child.getMeasuredWidth() == width
+                    && child.getMeasuredHeight() == height) {
+                continue;
+            }
             measureChild(child, childWidthMeasureSpec, childHeightMeasureSpec);
         }
     }
@@ -366,9 +721,15 @@ public class FlipView extends FrameLayout {
         child.measure(parentWidthMeasureSpec, parentHeightMeasureSpec);
     }
 
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        mOverFlipper.onSizeChanged(w, h);
+    }
+
     @Override
     protected void onLayout(boolean changed, int l, int t, int r, int b) {
-        layoutChildren();
+        layoutChildren(changed);
 
         final int width = getWidth();
         final int height = getHeight();
@@ -393,6 +754,18 @@ public class FlipView extends FrameLayout {
         mRightRect.right = width;
         mRightRect.bottom = height;
 
+        ensureOffscreenBitmaps();
+
+        initializeGradient();
+    }
+
+    /**
+     * Creates the offscreen bitmaps used on API 18 if they do not exist, also
+     * after they have been released by {@link #trimMemory(int)}.
+     */
+    private void ensureOffscreenBitmaps() {
+        final int width = getWidth();
+        final int height = getHeight();
         if (mBitmap == null && width > 0 && height > 0) {
             mBitmap = Bitmap.createBitmap(width, height, Bitmap.Config.RGB_565);
             mCanvas = new Canvas(mBitmap);
@@ -403,19 +776,31 @@ public class FlipView extends FrameLayout {
         // prepare bitmaps for first and last views (API 18)
         if (Build.VERSION.SDK_INT == Build.VERSION_CODES.JELLY_BEAN_MR2 &&
                 mIsFlippingCascade && !mCascadeViews.isEmpty() && !mCascadeBitmapsReady &&
-                width > 0 && height > 0) {
+                mBitmap != null) {
             mCascadeBitmapsReady = true;
             mCascadeViews.get(mCascadeViews.size() - 1).draw(mCanvas);
             mCascadeViews.get(0).draw(mCanvasR);
         }
-
-        initializeGradient();
     }
 
-    private void layoutChildren() {
+    /**
+     * @param changed true if the size or position of this view changed
+     */
+    private void layoutChildren(boolean changed) {
+        final int width = getWidth();
+        final int height = getHeight();
+        updateOffScreenCascadeViews();
         final int childCount = getChildCount();
         for (int i = 0; i < childCount; i++) {
             final View child = getChildAt(i);
+            if (child.getVisibility() == GONE || mOffScreenCascadeViews.contains(child)) {
+                continue;
+            }
+            if (!changed && !child.isLayoutRequested() && child.getLeft() == 0
+                    && child.getTop() == 0 && child.getWidth() == width
+                    && child.getHeight() == height) {
+                continue;
+            }
             layoutChild(child);
         }
     }
@@ -430,7 +815,7 @@ public class FlipView extends FrameLayout {
             mFlipDistance = 0;
             mCurrentPageIndex = INVALID_PAGE_POSITION;
             mCurrentPageId = -1;
-            removeAllViews();
+            removePageViews();
             mCascadeViews.clear();
             mIsCascadeAnimationPrepared = false;
             return;
@@ -446,8 +831,11 @@ public class FlipView extends FrameLayout {
     }
 
     private void setFlipDistance(float flipDistance, boolean reDraw) {
+        // any explicit flip distance replaces touch samples not yet applied
+        mHasPendingFlipDistance = false;
 
         if (mPageCount < 1) {
+            mFlipPage = 0;
             mFlipDistance = 0;
             mCurrentPageIndex = INVALID_PAGE_POSITION;
             mCurrentPageId = -1;
@@ -455,21 +843,18 @@ public class FlipView extends FrameLayout {
             return;
         }
 
-        if (flipDistance == mCascadeEndFlipDistance) {
-            mFlipDistance = mCascadeEndFlipDistance;
+        if (mCascadeEndFlipDistance != INVALID_FLIP_DISTANCE
+                && flipDistance == getEndFlipDistance()) {
             endScroll();
-            if (mOnDistanceListener != null) {
-                postDistancePassed();
-            }
-            if (reDraw) {
-                invalidate();
-            }
-            return;
         }
 
-        mFlipDistance = flipDistance;
+        // move the page the offset is relative to onto the current page
+        final int pageDelta = Math.round(flipDistance / FLIP_DISTANCE_PER_PAGE);
+        mFlipPage += pageDelta;
+        mFlipDistance = flipDistance - pageDelta * FLIP_DISTANCE_PER_PAGE;
+        mTouchFlipDistance -= pageDelta * FLIP_DISTANCE_PER_PAGE;
 
-        final int currentPageIndex = Math.round(mFlipDistance / FLIP_DISTANCE_PER_PAGE);
+        final int currentPageIndex = mFlipPage;
 
         if (mCurrentPageIndex != currentPageIndex) {
             mCurrentPageIndex = currentPageIndex;
@@ -494,9 +879,7 @@ public class FlipView extends FrameLayout {
             }
         }
 
-        if (mOnDistanceListener != null) {
-            postDistancePassed();
-        }
+        mEventDispatcher.dispatchDistance(getFlipDistance());
 
         if (reDraw) {
             invalidate();
@@ -506,30 +889,315 @@ public class FlipView extends FrameLayout {
     private void fillPageForIndex(Page p, int i) {
         p.position = i;
         p.viewType = mAdapter.getItemViewType(p.position);
-        p.v = getView(p.position, p.viewType);
+        p.request = null;
+        if (mAdapter instanceof FlipAdapter) {
+            fillHolderPage(p);
+        } else {
+            p.holder = null;
+            p.v = getView(p.position, p.viewType);
+        }
         p.valid = true;
     }
 
+    private void fillHolderPage(Page p) {
+        final FlipAdapter<?> adapter = (FlipAdapter<?>) mAdapter;
+        final Scrap scrap = mRecycler.getScrapView(p.position, p.viewType);
+
+        // only create a holder if there is none to reuse, a valid scrap is
+        // still bound to this index.
+        FlipAdapter.ViewHolder holder = scrap == null ? null : scrap.holder;
+        if (holder == null || !scrap.valid) {
+            if (mAsyncPageLoader != null) {
+                // hold the slot with a placeholder until the holder is ready
+                p.request = mAsyncPageLoader.load(adapter, p.position, p.viewType, holder);
+                p.holder = null;
+                p.v = obtainPlaceholderView();
+                return;
+            }
+            if (holder == null) {
+                holder = adapter.createViewHolder(this, p.viewType);
+            }
+            // pages entering while flipping are only seen briefly, a preview will do
+            if (!isFlipInProgress() || !adapter.bindPreview(holder, p.position)) {
+                adapter.bindViewHolder(holder, p.position);
+            }
+        }
+        p.holder = holder;
+        p.v = holder.itemView;
+    }
+
+    private boolean hasPreviewPages() {
+        return isPreviewPage(mCurrentPage) || isPreviewPage(mPreviousPage)
+                || isPreviewPage(mNextPage);
+    }
+
+    private static boolean isPreviewPage(Page p) {
+        return p.valid && p.holder != null && p.holder.isPreview();
+    }
+
+    private void fullBindPreviewPage(Page p) {
+        if (isPreviewPage(p) && mAdapter == p.holder.adapter) {
+            ((FlipAdapter<?>) mAdapter).bindViewHolder(p.holder, p.position);
+        }
+    }
+
+    /**
+     * Hints the pages the touch velocity is heading for, further ahead the
+     * faster the flip.
+     */
+    private void updateTouchPrefetch() {
+        if (!(mAdapter instanceof PrefetchAdapter) || mVelocityTracker == null) {
+            return;
+        }
+        mVelocityTracker.computeCurrentVelocity(1000, mMaximumVelocity);
+        final float velocity = isFlippingVertically()
+                ? mVelocityTracker.getYVelocity(mActivePointerId)
+                : mVelocityTracker.getXVelocity(mActivePointerId);
+        // a finger moving towards the top/left increases the flip distance
+        final float flipVelocity = -velocity / (((isFlippingVertically() ? getHeight()
+                : getWidth()) / FLIP_DISTANCE_PER_PAGE) * mSpeedMultiplier);
+        final boolean forward = Math.abs(velocity) < mMinimumVelocity
+                ? mPrefetchForward : flipVelocity > 0;
+        final int extraPages = (int) (Math.abs(flipVelocity) * PREFETCH_LOOKAHEAD / 1000
+                / FLIP_DISTANCE_PER_PAGE);
+        prefetchFrom(getCurrentPageRound(), forward, extraPages);
+    }
+
+    /**
+     * Hints the pages following page in the given direction.
+     *
+     * @param extraPages how many pages to hint beyond the prefetch distance
+     */
+    private void prefetchFrom(int page, boolean forward, int extraPages) {
+        if (!(mAdapter instanceof PrefetchAdapter) || page == INVALID_PAGE_POSITION) {
+            return;
+        }
+        final int distance = mPrefetchDistance + extraPages;
+        int first = forward ? page + 1 : page - distance;
+        int last = forward ? page + distance : page - 1;
+        first = Math.max(first, 0);
+        last = Math.min(last, mPageCount - 1);
+        if (mPrefetchDistance == 0 || first > last) {
+            cancelPrefetch();
+            mPrefetchForward = forward;
+            return;
+        }
+        if (first == mPrefetchFirst && last == mPrefetchLast && forward == mPrefetchForward) {
+            return;
+        }
+
+        // cancel what is no longer predicted before hinting the new pages
+        final PrefetchAdapter adapter = (PrefetchAdapter) mAdapter;
+        if (mPrefetchFirst != INVALID_PAGE_POSITION) {
+            if (mPrefetchFirst < first) {
+                adapter.onCancelPrefetch(mPrefetchFirst, Math.min(mPrefetchLast, first - 1));
+            }
+            if (mPrefetchLast > last) {
+                adapter.onCancelPrefetch(Math.max(mPrefetchFirst, last + 1), mPrefetchLast);
+            }
+        }
+        mPrefetchFirst = first;
+        mPrefetchLast = last;
+        mPrefetchForward = forward;
+        adapter.onPrefetch(first, last, forward);
+    }
+
+    private void cancelPrefetch() {
+        if (mPrefetchFirst != INVALID_PAGE_POSITION && mAdapter instanceof PrefetchAdapter) {
+            ((PrefetchAdapter) mAdapter).onCancelPrefetch(mPrefetchFirst, mPrefetchLast);
+        }
+        mPrefetchFirst = INVALID_PAGE_POSITION;
+        mPrefetchLast = INVALID_PAGE_POSITION;
+    }
+
+    /**
+     * Reports the changes in which pages are active and how much of them is
+     * visible since the last update.
+     *
+     * @param detachAll report every page as detached, when leaving the window
+     */
+    private void updatePageLifecycle(boolean detachAll) {
+        if (mOnPageLifecycleListener == null) {
+            return;
+        }
+        int count = 0;
+        if (!detachAll && !mIsFlippingCascade) {
+            count = addLifecyclePage(mPreviousPage, count);
+            count = addLifecyclePage(mCurrentPage, count);
+            count = addLifecyclePage(mNextPage, count);
+        }
+        mPageLifecycleTracker.update(this, mOnPageLifecycleListener, mLifecycleViews,
+                mLifecyclePositions, mLifecycleFractions, count);
+        for (int i = 0; i < count; i++) {
+            mLifecycleViews[i] = null;
+        }
+    }
+
+    private int addLifecyclePage(Page p, int count) {
+        // placeholders are not the adapter's pages
+        if (!p.valid || p.request != null) {
+            return count;
+        }
+        mLifecycleViews[count] = p.v;
+        mLifecyclePositions[count] = p.position;
+        mLifecycleFractions[count] = getVisibleFraction(p.position);
+        return count + 1;
+    }
+
+    /**
+     * While turning, the page below the turn is visible apart from the part
+     * covered by the flipping half, and the page above it the other way
+     * around. The flipping half covers cos(degrees) of a half page.
+     *
+     * @return how much of the page at position can be seen, 0 - 1
+     */
+    private float getVisibleFraction(int position) {
+        final int lowerPage = mFlipPage + (int) Math.floor(mFlipDistance / FLIP_DISTANCE_PER_PAGE);
+        final float cos = (float) Math.cos(Math.toRadians(getDegreesFlipped()));
+        if (position == lowerPage) {
+            return (1 + cos) / 2;
+        } else if (position == lowerPage + 1) {
+            return (1 - cos) / 2;
+        }
+        return 0;
+    }
+
+    /**
+     * @return true while a page is turning, by touch or by animation
+     */
+    private boolean isFlipInProgress() {
+        return mIsFlipping || !mScroller.isFinished() || mPeakAnim != null
+                || mIsReleasingOverFlip;
+    }
+
+    private View obtainPlaceholderView() {
+        final int size = mPlaceholderViews.size();
+        if (size > 0) {
+            return mPlaceholderViews.remove(size - 1);
+        }
+        return ((FlipAdapter<?>) mAdapter).onCreatePlaceholderView(this);
+    }
+
+    private void asyncPageLoaded(AsyncPageLoader.Request request) {
+        Page page = null;
+        if (!request.isCancelled()) {
+            for (Page p : new Page[]{mPreviousPage, mCurrentPage, mNextPage}) {
+                if (p.valid && p.request == request) {
+                    page = p;
+                }
+            }
+        }
+        if (page == null) {
+            // no longer needed, keep the holder for the next page of its type
+            if (request.holder != null && request.adapter == mAdapter && !request.failed) {
+                mRecycler.addScrapView(request.holder.itemView, request.holder,
+                        request.position, request.viewType, false);
+            }
+            return;
+        }
+
+        final FlipAdapter<?> adapter = request.adapter;
+        FlipAdapter.ViewHolder holder = request.holder;
+        if (request.failed) {
+            if (holder == null) {
+                holder = adapter.createViewHolder(this, request.viewType);
+            }
+            adapter.bindViewHolder(holder, request.position);
+        } else {
+            adapter.bindViewHolder(holder, request.position, request.prepared);
+        }
+
+        // swap without requesting a layout so an ongoing flip is not disturbed
+        removeViewInLayout(page.v);
+        mPlaceholderViews.add(page.v);
+        page.request = null;
+        page.holder = holder;
+        page.v = holder.itemView;
+        LayoutParams params = page.v.getLayoutParams();
+        if (params == null) {
+            params = generateDefaultLayoutParams();
+        }
+        addViewInLayout(page.v, -1, params, true);
+        page.v.measure(MeasureSpec.makeMeasureSpec(getWidth(), MeasureSpec.EXACTLY),
+                MeasureSpec.makeMeasureSpec(getHeight(), MeasureSpec.EXACTLY));
+        layoutChild(page.v);
+        invalidate();
+        if (page == mCurrentPage) {
+            postSaveSnapshot();
+        }
+    }
+
+    /**
+     * Saves the current page to the snapshot cache once the full binds
+     * posted on landing have run.
+     */
+    private void postSaveSnapshot() {
+        if (mSnapshotCache != null && !mIsSaveSnapshotPosted) {
+            mIsSaveSnapshotPosted = true;
+            post(mSaveSnapshot);
+        }
+    }
+
+    private void saveSnapshot() {
+        if (mSnapshotCache == null || isFlipInProgress() || mIsFlippingCascade
+                || !mCurrentPage.valid || mCurrentPage.request != null
+                || (mCurrentPage.holder != null && mCurrentPage.holder.preview)) {
+            return;
+        }
+        // a page is only recorded once per session
+        if (mSavedSnapshotIds.add(mCurrentPageId)) {
+            mSnapshotCache.save(mCurrentPageId, mCurrentPage.v);
+        } else {
+            mSnapshotCache.setLastId(mCurrentPageId);
+        }
+    }
+
+    /**
+     * Draws the snapshot of the last viewed page from before a cold start
+     * while there are no pages, or while the current page is that page and
+     * still a placeholder.
+     *
+     * @return true if the snapshot was drawn
+     */
+    private boolean drawColdStartSnapshot(Canvas canvas) {
+        if (mColdStartSnapshot == null) {
+            return false;
+        }
+        if (mPageCount > 0 && (!mCurrentPage.valid || mCurrentPage.request == null
+                || mCurrentPageId != mColdStartSnapshotId)) {
+            // the real page is ready or the snapshot shows another page
+            mColdStartSnapshot = null;
+            return false;
+        }
+        mSnapshotRect.set(0, 0, getWidth(), getHeight());
+        canvas.drawBitmap(mColdStartSnapshot, null, mSnapshotRect, mSnapshotPaint);
+        return true;
+    }
+
     private void recycleActiveViews() {
         // remove and recycle the currently active views
         if (mPreviousPage.valid) {
-            removeView(mPreviousPage.v);
-            mRecycler.addScrapView(mPreviousPage.v, mPreviousPage.position,
-                    mPreviousPage.viewType);
-            mPreviousPage.valid = false;
+            recyclePage(mPreviousPage);
         }
         if (mCurrentPage.valid) {
-            removeView(mCurrentPage.v);
-            mRecycler.addScrapView(mCurrentPage.v, mCurrentPage.position,
-                    mCurrentPage.viewType);
-            mCurrentPage.valid = false;
+            recyclePage(mCurrentPage);
         }
         if (mNextPage.valid) {
-            removeView(mNextPage.v);
-            mRecycler.addScrapView(mNextPage.v, mNextPage.position,
-                    mNextPage.viewType);
-            mNextPage.valid = false;
+            recyclePage(mNextPage);
+        }
+    }
+
+    private void recyclePage(Page p) {
+        removeView(p.v);
+        if (p.request != null) {
+            // the holder is recycled once it has been created
+            p.request.cancel();
+            p.request = null;
+            mPlaceholderViews.add(p.v);
+        } else {
+            mRecycler.addScrapView(p.v, p.holder, p.position, p.viewType);
         }
+        p.valid = false;
     }
 
     private View getView(int index, int viewType) {
@@ -550,8 +1218,44 @@ public class FlipView extends FrameLayout {
         return v;
     }
 
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        mEventDispatcher.onAttachedToWindow();
+        getContext().getApplicationContext().registerComponentCallbacks(mComponentCallbacks);
+        if (mQualityGovernor != null) {
+            mQualityGovernor.setFrameBudget(getFrameBudget());
+        }
+        if (mOnMemoryStatsListener != null) {
+            removeCallbacks(mReportMemoryStats);
+            postDelayed(mReportMemoryStats, mMemoryStatsInterval);
+        }
+    }
+
+    /**
+     * @return the duration of a frame on the display of this view, in ns. 0
+     * if unknown.
+     */
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN_MR1)
+    private long getFrameBudget() {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.JELLY_BEAN_MR1 || getDisplay() == null) {
+            return 0;
+        }
+        final float refreshRate = getDisplay().getRefreshRate();
+        return refreshRate > 0 ? (long) (1000000000L / refreshRate) : 0;
+    }
+
     @Override
     protected void onDetachedFromWindow() {
+        mEventDispatcher.onDetachedFromWindow();
+        getContext().getApplicationContext().unregisterComponentCallbacks(mComponentCallbacks);
+        removeCallbacks(mUpdatePageLifecycle);
+        mIsPageLifecyclePosted = false;
+        if (mOnPageLifecycleListener != null) {
+            updatePageLifecycle(true);
+        }
+        removeCallbacks(mReportMemoryStats);
+
         if (mBitmap != null) {
             mBitmap.recycle();
         }
@@ -563,6 +1267,7 @@ public class FlipView extends FrameLayout {
         }
         mCanvasR = null;
         mBitmapR = null;
+        mPageSnapshots.release();
         super.onDetachedFromWindow();
     }
 
@@ -570,7 +1275,7 @@ public class FlipView extends FrameLayout {
     public boolean onInterceptTouchEvent(MotionEvent ev) {
         mCascadeEndFlipDistance = INVALID_FLIP_DISTANCE;
 
-        if (!mIsFlippingEnabled) {
+        if (!mIsFlippingEnabled || mBatchUpdateDepth > 0) {
             return false;
         }
 
@@ -631,6 +1336,7 @@ public class FlipView extends FrameLayout {
                     mIsFlipping = true;
                     mLastX = x;
                     mLastY = y;
+                    startTouchFlip();
                 } else if ((mIsFlippingVertically && xDiff > mTouchSlop)
                         || (!mIsFlippingVertically && yDiff > mTouchSlop)) {
                     mIsUnableToFlip = true;
@@ -643,7 +1349,8 @@ public class FlipView extends FrameLayout {
                 mLastX = ev.getX(mActivePointerId);
                 mLastY = ev.getY(mActivePointerId);
                 mSpeedMultiplier = 0.5f;
-                mIsFlipping = !mScroller.isFinished() | mPeakAnim != null;
+                mIsFlipping = !mScroller.isFinished() | mPeakAnim != null
+                        | mIsReleasingOverFlip;
                 mIsUnableToFlip = false;
                 mLastTouchAllowed = true;
 
@@ -666,7 +1373,7 @@ public class FlipView extends FrameLayout {
 
         if (!mIsFlippingCascade) {
 
-            if (!mIsFlippingEnabled) {
+            if (!mIsFlippingEnabled || mBatchUpdateDepth > 0) {
                 return false;
             }
 
@@ -694,9 +1401,10 @@ public class FlipView extends FrameLayout {
                 case MotionEvent.ACTION_DOWN:
 
                     // start flipping immediately if interrupting some sort of animation
-                    if (endScroll() || endPeak()) {
+                    if (endScroll() || endPeak() || endOverFlipRelease()) {
                         mIsFlipping = true;
                     }
+                    startTouchFlip();
 
                     // Remember where the motion event started
                     mLastX = ev.getX();
@@ -720,6 +1428,7 @@ public class FlipView extends FrameLayout {
                             mIsFlipping = true;
                             mLastX = x;
                             mLastY = y;
+                            startTouchFlip();
                         }
                     }
                     if (mIsFlipping) {
@@ -730,62 +1439,46 @@ public class FlipView extends FrameLayout {
                             mActivePointerId = INVALID_POINTER;
                             break;
                         }
-                        final float x = ev.getX(activePointerIndex);
-                        final float deltaX = mLastX - x;
-                        final float y = ev.getY(activePointerIndex);
-                        final float deltaY = mLastY - y;
-                        mLastX = x;
-                        mLastY = y;
-
-                        float deltaFlipDistance;
-                        if (mIsFlippingVertically) {
-                            deltaFlipDistance = deltaY;
-                        } else {
-                            deltaFlipDistance = deltaX;
-                        }
 
-                        deltaFlipDistance /= ((isFlippingVertically() ? getHeight()
-                                : getWidth()) / FLIP_DISTANCE_PER_PAGE) * mSpeedMultiplier;
-                        float newFlipDistance = mFlipDistance + deltaFlipDistance;
+                        final boolean wasOverFlipping = mIsOverFlipping;
 
-                        // check for max possible distance
-                        if (newFlipDistance > mPageCount * FLIP_DISTANCE_PER_PAGE + FLIP_DISTANCE_PER_PAGE / 2 - 1) {
-                            newFlipDistance = mPageCount * FLIP_DISTANCE_PER_PAGE + FLIP_DISTANCE_PER_PAGE / 2 - 1;
+                        // follow every sample batched into this event, not only the latest one,
+                        // from the real touch position as the drawn one includes the prediction
+                        float newFlipDistance = mTouchFlipDistance;
+                        final int historySize = ev.getHistorySize();
+                        for (int h = 0; h < historySize; h++) {
+                            newFlipDistance = followTouchSample(newFlipDistance,
+                                    ev.getHistoricalX(activePointerIndex, h),
+                                    ev.getHistoricalY(activePointerIndex, h));
                         }
-
-                        setFlipDistance(newFlipDistance < -FLIP_DISTANCE_PER_PAGE ? -FLIP_DISTANCE_PER_PAGE : newFlipDistance, true);
-
-                        final int minFlipDistance = 0;
-                        final int maxFlipDistance = (mPageCount - 1)
-                                * FLIP_DISTANCE_PER_PAGE;
-                        final boolean isOverFlipping = mFlipDistance < minFlipDistance
-                                || mFlipDistance > maxFlipDistance;
-                        if (isOverFlipping) {
-                            mIsOverFlipping = true;
-                            setFlipDistance(mOverFlipper.calculate(mFlipDistance,
-                                    minFlipDistance, maxFlipDistance), true);
-                            if (mOnOverFlipListener != null) {
-                                float overFlip = mOverFlipper.getTotalOverFlip();
-                                mOnOverFlipListener.onOverFlip(this, mOverFlipMode,
-                                        overFlip < 0, Math.abs(overFlip),
-                                        FLIP_DISTANCE_PER_PAGE);
-                            }
-                        } else if (mIsOverFlipping) {
-                            mIsOverFlipping = false;
-                            if (mOnOverFlipListener != null) {
-                                // TODO in the future should only notify flip distance 0
-                                // on the correct edge (previous/next)
-                                mOnOverFlipListener.onOverFlip(this, mOverFlipMode,
-                                        false, 0, FLIP_DISTANCE_PER_PAGE);
-                                mOnOverFlipListener.onOverFlip(this, mOverFlipMode,
-                                        true, 0, FLIP_DISTANCE_PER_PAGE);
-                            }
+                        newFlipDistance = followTouchSample(newFlipDistance,
+                                ev.getX(activePointerIndex), ev.getY(activePointerIndex));
+
+                        // the flip distance itself is only updated once per frame, see dispatchDraw
+                        mTouchFlipDistance = newFlipDistance;
+                        mPendingFlipDistance = mIsOverFlipping ? newFlipDistance
+                                : newFlipDistance + getPredictedFlipDistance();
+                        mHasPendingFlipDistance = true;
+                        invalidate();
+                        updateTouchPrefetch();
+
+                        if (mIsOverFlipping) {
+                            float overFlip = mOverFlipper.getTotalOverFlip();
+                            mEventDispatcher.dispatchOverFlip(mOverFlipMode,
+                                    overFlip < 0, Math.abs(overFlip),
+                                    FLIP_DISTANCE_PER_PAGE);
+                        } else if (wasOverFlipping) {
+                            mEventDispatcher.dispatchOverFlipEnded(mOverFlipMode,
+                                    FLIP_DISTANCE_PER_PAGE);
                         }
                     }
                     break;
                 case MotionEvent.ACTION_UP:
                 case MotionEvent.ACTION_CANCEL:
                     if (mIsFlipping) {
+                        // land the last real touch position, without prediction
+                        setFlipDistance(mTouchFlipDistance, true);
+
                         final VelocityTracker velocityTracker = mVelocityTracker;
                         velocityTracker.computeCurrentVelocity(1000, mMaximumVelocity);
 
@@ -797,12 +1490,18 @@ public class FlipView extends FrameLayout {
                             velocity = (int) velocityTracker.getXVelocity(
                                     mActivePointerId);
                         }
-                        smoothFlipTo(getNextPage(velocity));
+                        final int nextPage = getNextPage(velocity);
+                        prefetchFrom(nextPage, nextPage == mCurrentPageIndex
+                                ? mPrefetchForward : nextPage > mCurrentPageIndex, 0);
+                        if (!startOverFlipRelease(nextPage, velocity)) {
+                            smoothFlipTo(nextPage);
+                        }
 
                         mActivePointerId = INVALID_POINTER;
                         endFlip();
 
                         mOverFlipper.overFlipEnded();
+                        mOverFlipView.invalidate();
                     }
                     break;
                 case MotionEvent.ACTION_POINTER_DOWN: {
@@ -831,24 +1530,120 @@ public class FlipView extends FrameLayout {
         return true;
     }
 
+    /**
+     * Follows the touch from the current flip distance, mTouchFlipDistance is
+     * the real touch position from here on until the touch ends.
+     */
+    private void startTouchFlip() {
+        mTouchFlipDistance = mFlipDistance;
+        restoreTrimmedPages();
+    }
+
+    /**
+     * Moves the given flip distance by one pointer sample, applying over flip
+     * when the result falls outside of the adapter range. Does not touch
+     * mFlipDistance, the caller decides when to apply the result.
+     *
+     * @return the flip distance after this sample
+     */
+    private float followTouchSample(float flipDistance, float x, float y) {
+        final float deltaX = mLastX - x;
+        final float deltaY = mLastY - y;
+        mLastX = x;
+        mLastY = y;
+
+        float deltaFlipDistance;
+        if (mIsFlippingVertically) {
+            deltaFlipDistance = deltaY;
+        } else {
+            deltaFlipDistance = deltaX;
+        }
+
+        deltaFlipDistance /= ((isFlippingVertically() ? getHeight()
+                : getWidth()) / FLIP_DISTANCE_PER_PAGE) * mSpeedMultiplier;
+        float newFlipDistance = flipDistance + deltaFlipDistance;
+
+        // check for max possible distance, relative to mFlipPage
+        final int minFlipDistance = -mFlipPage * FLIP_DISTANCE_PER_PAGE;
+        final int maxFlipDistance = (mPageCount - 1 - mFlipPage) * FLIP_DISTANCE_PER_PAGE;
+        if (newFlipDistance > maxFlipDistance + FLIP_DISTANCE_PER_PAGE + FLIP_DISTANCE_PER_PAGE / 2 - 1) {
+            newFlipDistance = maxFlipDistance + FLIP_DISTANCE_PER_PAGE + FLIP_DISTANCE_PER_PAGE / 2 - 1;
+        }
+        if (newFlipDistance < minFlipDistance - FLIP_DISTANCE_PER_PAGE) {
+            newFlipDistance = minFlipDistance - FLIP_DISTANCE_PER_PAGE;
+        }
+
+        mIsOverFlipping = newFlipDistance < minFlipDistance
+                || newFlipDistance > maxFlipDistance;
+        if (mIsOverFlipping) {
+            newFlipDistance = mOverFlipper.calculate(newFlipDistance,
+                    minFlipDistance, maxFlipDistance);
+            mOverFlipView.invalidate();
+        }
+        return newFlipDistance;
+    }
+
+    /**
+     * @return how much further the flip distance is expected to move within
+     * the prediction horizon, based on the current pointer velocity. 0 if
+     * touch prediction is disabled.
+     */
+    private float getPredictedFlipDistance() {
+        if (mTouchPredictionHorizon <= 0 || mVelocityTracker == null) {
+            return 0;
+        }
+        mVelocityTracker.computeCurrentVelocity(1000, mMaximumVelocity);
+        final float velocity = isFlippingVertically()
+                ? mVelocityTracker.getYVelocity(mActivePointerId)
+                : mVelocityTracker.getXVelocity(mActivePointerId);
+
+        // a finger moving towards the top/left increases the flip distance
+        float predicted = -velocity * mTouchPredictionHorizon / 1000f;
+        predicted /= ((isFlippingVertically() ? getHeight()
+                : getWidth()) / FLIP_DISTANCE_PER_PAGE) * mSpeedMultiplier;
+
+        // never predict past the first or last page
+        final float target = Math.min(Math.max(mTouchFlipDistance + predicted,
+                -mFlipPage * FLIP_DISTANCE_PER_PAGE),
+                (mPageCount - 1 - mFlipPage) * FLIP_DISTANCE_PER_PAGE);
+        return target - mTouchFlipDistance;
+    }
+
     @Override
     protected void dispatchDraw(Canvas canvas) {
         if (!mIsFlippingEnabled) {
             mIsFlippingEnabled = true;
         }
         if (mPageCount < 1) {
+            drawColdStartSnapshot(canvas);
             return;
         }
 
+        mPageSnapshots.newFrame();
+        if (mHasPendingFlipDistance) {
+            setFlipDistance(mPendingFlipDistance, false);
+        }
+
+        if (mIsReleasingOverFlip) {
+            final VelocityOverFlipper overFlipper = (VelocityOverFlipper) mOverFlipper;
+            mIsReleasingOverFlip = overFlipper.computeRelease();
+            mOverFlipView.invalidate();
+            setFlipDistance(overFlipper.getReleaseFlipDistance()
+                    + (mReleaseFlipPage - mFlipPage) * FLIP_DISTANCE_PER_PAGE, false);
+        }
+
         if (!mScroller.isFinished() && mScroller.computeScrollOffset()) {
             if (!mIsFlippingCascade) {
-                setFlipDistance(mScroller.getCurrY(), false);
+                setFlipDistance(getScrollFlipDistance(), false);
             } else {
                 setCascadeFlipDistance(mScroller.getCurrY());
             }
         }
 
-        if (mIsFlipping || !mScroller.isFinished() || mPeakAnim != null) {
+        if (mIsFlipping || !mScroller.isFinished() || mPeakAnim != null
+                || mIsReleasingOverFlip) {
+            updateRenderQuality();
+            updateFastFlip();
             if (!mIsFlippingCascade) {
                 drawSequential(canvas);
             } else {
@@ -856,19 +1651,25 @@ public class FlipView extends FrameLayout {
             }
         } else {
             endScroll();
+            pauseFlipFrames();
             if (mIsFlippingCascade) {
                 drawCascade(canvas);
                 if (!mIsCascadeAnimationPrepared) {
                     mFlipDistance = mCascadeEndFlipDistance;
                 }
-            } else if (mFlipDistance % FLIP_DISTANCE_PER_PAGE > EPSILON) {
+            } else if (Math.abs(mFlipDistance) > EPSILON) {
                 mIsFlippingToDistance = false;
-                mFlipDistance = mCascadeEndFlipDistance;
+                if (mCascadeEndFlipDistance != INVALID_FLIP_DISTANCE) {
+                    mFlipDistance = getEndFlipDistance();
+                }
                 drawSequential(canvas);
-            } else {
+            } else if (!drawColdStartSnapshot(canvas)) {
                 setDrawWithLayer(mCurrentPage.v, false);
                 hideOtherPages(mCurrentPage);
                 drawChild(canvas, mCurrentPage.v, 0);
+                if (mCurrentPage.request == null) {
+                    mIsColdStart = false;
+                }
             }
 
             // dispatch listener event now that we have "landed" on a page.
@@ -876,23 +1677,37 @@ public class FlipView extends FrameLayout {
             // should change.
             if (mLastDispatchedPageEventIndex != mCurrentPageIndex) {
                 mLastDispatchedPageEventIndex = mCurrentPageIndex;
-                postFlippedToPage(mCurrentPageIndex);
+                mEventDispatcher.dispatchFlippedToPage(mCurrentPageIndex);
+                // the reader most likely continues in the same direction
+                prefetchFrom(mCurrentPageIndex, mPrefetchForward, 0);
+                postSaveSnapshot();
             }
-        }
 
-        // if overflip is GLOW mode and the edge effects needed drawing, make
-        // sure to invalidate
-        if (mDrawOverFlip) {
-            if (mOverFlipper.draw(canvas)) {
-                // always invalidate whole screen as it is needed 99% of the time.
-                // This is because of the shadows and shines put on the non-flipping
-                // pages
-                invalidate();
+            // pages bound as previews while flipping get their full bind now
+            if (!mIsFullBindPosted && !mIsFlippingCascade && hasPreviewPages()) {
+                mIsFullBindPosted = true;
+                post(mFullBindPreviewPages);
             }
         }
 
+        // report outside of the draw pass, listeners may change their pages
+        if (mOnPageLifecycleListener != null && !mIsPageLifecyclePosted) {
+            mIsPageLifecyclePosted = true;
+            post(mUpdatePageLifecycle);
+        }
+
+        // the over flip view invalidates itself while the edge effects
+        // animate, that does not draw the pages again
+        if (isDrawingOverFlip()) {
+            drawChild(canvas, mOverFlipView, 0);
+        }
+
         // invalidate for cascade
-        if (mFlipDistance != mCascadeEndFlipDistance && mCascadeEndFlipDistance != INVALID_FLIP_DISTANCE) {
+        if (mCascadeEndFlipDistance != INVALID_FLIP_DISTANCE && mFlipDistance != getEndFlipDistance()) {
+            invalidate();
+        }
+
+        if (mIsReleasingOverFlip) {
             invalidate();
         }
     }
@@ -943,8 +1758,8 @@ public class FlipView extends FrameLayout {
             canvas.clipRect(isFlippingVertically() ? mTopRect : mLeftRect);
 
             final View v = mCascadeViews.get(prevViewIdx);
-            setDrawWithLayer(v, true);
-            drawChild(canvas, v, 0);
+            ensureLaidOut(v);
+            drawLivePage(canvas, v);
 
             canvas.restore();
         }
@@ -956,14 +1771,15 @@ public class FlipView extends FrameLayout {
             canvas.clipRect(isFlippingVertically() ? mBottomRect : mRightRect);
 
             final View v = mCascadeViews.get(nextViewIdx);
-            setDrawWithLayer(v, true);
-            drawChild(canvas, v, 0);
+            ensureLaidOut(v);
+            drawLivePage(canvas, v);
 
             canvas.restore();
         }
     }
 
     private void drawApi18(Canvas canvas) {
+        ensureOffscreenBitmaps();
         if (mFlipDistance >= 90) {
             canvas.save();
             final Rect drawingRect = isFlippingVertically() ? mBottomRect : mRightRect;
@@ -1034,8 +1850,8 @@ public class FlipView extends FrameLayout {
                 positionMatrix();
                 canvas.concat(mMatrix);
 
-                setDrawWithLayer(holder.v, true);
-                drawChild(canvas, holder.v, 0);
+                ensureLaidOut(holder.v);
+                drawLivePage(canvas, holder.v);
 
                 mCamera.restore();
                 canvas.restore();
@@ -1066,18 +1882,64 @@ public class FlipView extends FrameLayout {
         if (mNextPage != p && mNextPage.valid && mNextPage.v.getVisibility() != GONE) {
             mNextPage.v.setVisibility(GONE);
         }
-        p.v.setVisibility(VISIBLE);
+        if (p.v.getVisibility() != VISIBLE) {
+            p.v.setVisibility(VISIBLE);
+            ensureLaidOut(p.v);
+        }
     }
 
     private void showAllPages() {
         if (mPreviousPage.valid && mPreviousPage.v.getVisibility() != VISIBLE) {
             mPreviousPage.v.setVisibility(VISIBLE);
+            ensureLaidOut(mPreviousPage.v);
         }
         if (mCurrentPage.valid && mCurrentPage.v.getVisibility() != VISIBLE) {
             mCurrentPage.v.setVisibility(VISIBLE);
+            ensureLaidOut(mCurrentPage.v);
         }
         if (mNextPage.valid && mNextPage.v.getVisibility() != VISIBLE) {
             mNextPage.v.setVisibility(VISIBLE);
+            ensureLaidOut(mNextPage.v);
+        }
+    }
+
+    /**
+     * Collects the cascade views between the first and last one that are not
+     * drawn at the current flip distance, once before a measure or layout
+     * pass. The first and last view are always kept laid out, they are drawn
+     * into the API 18 bitmaps.
+     */
+    private void updateOffScreenCascadeViews() {
+        mOffScreenCascadeViews.clear();
+        final int count = mCascadeViews.size();
+        if (!mIsFlippingCascade || count <= 2) {
+            return;
+        }
+        final int prevViewIdx = getPrevViewIdx();
+        final int nextViewIdx = getNextViewIdx();
+        for (int i = 1; i < count - 1; i++) {
+            if (i < prevViewIdx || i > nextViewIdx) {
+                mOffScreenCascadeViews.add(mCascadeViews.get(i));
+            }
+        }
+    }
+
+    /**
+     * Hidden pages and off screen cascade views are skipped by measure and
+     * layout. A page shown from the draw pass can not wait for the next layout pass, so it is measured and
+     * laid out right away if its size is out of date.
+     */
+    private void ensureLaidOut(View v) {
+        final int width = getWidth();
+        final int height = getHeight();
+        // the content may have changed while the page was hidden
+        final boolean layoutRequested = v.isLayoutRequested();
+        if (layoutRequested || v.getMeasuredWidth() != width || v.getMeasuredHeight() != height) {
+            v.measure(MeasureSpec.makeMeasureSpec(width, MeasureSpec.EXACTLY),
+                    MeasureSpec.makeMeasureSpec(height, MeasureSpec.EXACTLY));
+        }
+        if (layoutRequested || v.getWidth() != width || v.getHeight() != height) {
+            layoutChild(v);
         }
     }
 
@@ -1097,17 +1959,13 @@ public class FlipView extends FrameLayout {
         // if the view does not exist, skip drawing it
         if (p.valid) {
             if (Build.VERSION.SDK_INT == Build.VERSION_CODES.JELLY_BEAN_MR2 && degreesFlipped < 90) {
-                p.v.draw(mCanvas);
-                if (mBitmap != null) {
-                    canvas.drawBitmap(mBitmap, drawingRect, drawingRect, null);
-                }
+                drawApi18Page(canvas, p.v, drawingRect);
             } else {
-                setDrawWithLayer(p.v, true);
-                drawChild(canvas, p.v, 0);
+                drawPage(canvas, p.v);
             }
         }
 
-        if (mDrawShadows) {
+        if (isDrawingShadows()) {
             drawPreviousShadow(canvas);
         }
         canvas.restore();
@@ -1143,17 +2001,13 @@ public class FlipView extends FrameLayout {
         // if the view does not exist, skip drawing it
         if (p.valid) {
             if (Build.VERSION.SDK_INT == Build.VERSION_CODES.JELLY_BEAN_MR2 && degreesFlipped >= 90) {
-                p.v.draw(mCanvas);
-                if (mBitmap != null) {
-                    canvas.drawBitmap(mBitmap, drawingRect, drawingRect, null);
-                }
+                drawApi18Page(canvas, p.v, drawingRect);
             } else {
-                setDrawWithLayer(p.v, true);
-                drawChild(canvas, p.v, 0);
+                drawPage(canvas, p.v);
             }
         }
 
-        if (mDrawShadows) {
+        if (isDrawingShadows()) {
             drawNextShadow(canvas);
         }
         canvas.restore();
@@ -1200,14 +2054,13 @@ public class FlipView extends FrameLayout {
         positionMatrix();
         canvas.concat(mMatrix);
 
-        setDrawWithLayer(mCurrentPage.v, true);
-        drawChild(canvas, mCurrentPage.v, 0);
+        drawPage(canvas, mCurrentPage.v);
 
-        if (mDrawShadesAndShines) {
+        if (mDrawShadesAndShines && mRenderQuality == RenderQuality.FULL) {
             drawFlippingShadeShine(canvas);
         }
 
-        if (mDrawGradient) {
+        if (mDrawGradient && mRenderQuality == RenderQuality.FULL) {
             drawGradient(canvas);
         }
 
@@ -1254,6 +2107,133 @@ public class FlipView extends FrameLayout {
         }
     }
 
+    /**
+     * Draws a page during a flip, from a reduced resolution snapshot during
+     * fast flips and from a full resolution one at
+     * {@link RenderQuality#SNAPSHOT}.
+     *
+     * @param canvas
+     * @param v
+     */
+    private void drawPage(Canvas canvas, View v) {
+        if ((mIsFastFlip || mRenderQuality == RenderQuality.SNAPSHOT) && drawSnapshot(canvas, v)) {
+            return;
+        }
+        drawLivePage(canvas, v);
+    }
+
+    /**
+     * Draws a page during a flip. Pages of a {@link PageRendererAdapter} are
+     * drawn by their renderer directly, other pages through a hardware layer.
+     *
+     * @param canvas
+     * @param v
+     */
+    private void drawLivePage(Canvas canvas, View v) {
+        if (v instanceof PageRendererView) {
+            canvas.save();
+            canvas.translate(v.getLeft(), v.getTop());
+            ((PageRendererView) v).renderer.draw(canvas, v.getWidth(), v.getHeight());
+            canvas.restore();
+            return;
+        }
+        setDrawWithLayer(v, true);
+        drawChild(canvas, v, 0);
+    }
+
+    /**
+     * Draws the page through a snapshot instead of drawing it into the
+     * offscreen bitmap every frame, which works around drawing issues on
+     * API 18.
+     *
+     * @param canvas
+     * @param v
+     * @param drawingRect
+     */
+    private void drawApi18Page(Canvas canvas, View v, Rect drawingRect) {
+        if (drawSnapshot(canvas, v)) {
+            return;
+        }
+        ensureOffscreenBitmaps();
+        if (mBitmap != null) {
+            v.draw(mCanvas);
+            canvas.drawBitmap(mBitmap, drawingRect, drawingRect, null);
+        }
+    }
+
+    /**
+     * @return false if the snapshot of the page is not ready yet
+     */
+    private boolean drawSnapshot(Canvas canvas, View v) {
+        return mPageSnapshots.draw(canvas, v, mIsFastFlip ? mFastFlipScale : 1f);
+    }
+
+    private boolean isDrawingShadows() {
+        return mDrawShadows && mRenderQuality.ordinal() < RenderQuality.LOW.ordinal();
+    }
+
+    /**
+     * Times the current flip frame and applies the quality the governor
+     * settles on.
+     */
+    private void updateRenderQuality() {
+        if (mQualityGovernor != null && mQualityGovernor.onFrame(System.nanoTime())) {
+            setRenderQuality(mQualityGovernor.getQuality());
+        }
+    }
+
+    /**
+     * Measures how fast the flip moves and switches to reduced resolution
+     * snapshots above the fast flip velocity. Full resolution comes back
+     * once the flip has slowed to half of it, so it does not flicker
+     * between the two around the threshold.
+     */
+    private void updateFastFlip() {
+        if (mFastFlipScale >= 1f || mIsFlippingCascade) {
+            return;
+        }
+        final long time = System.nanoTime();
+        final float flipDistance = getFlipDistance();
+        if (mLastFlipFrameTime != 0 && time > mLastFlipFrameTime) {
+            final float velocity = Math.abs(flipDistance - mLastFlipFrameDistance)
+                    / FLIP_DISTANCE_PER_PAGE * 1000000000f / (time - mLastFlipFrameTime);
+            // touch samples are uneven, smooth them a bit
+            mFlipVelocity = (mFlipVelocity + velocity) / 2;
+            if (mFlipVelocity > mFastFlipVelocity) {
+                mIsFastFlip = true;
+            } else if (mFlipVelocity < mFastFlipVelocity / 2) {
+                mIsFastFlip = false;
+            }
+        }
+        mLastFlipFrameTime = time;
+        mLastFlipFrameDistance = flipDistance;
+    }
+
+    /**
+     * Called for frames without a flip drawn by the UI thread.
+     */
+    private void pauseFlipFrames() {
+        if (mQualityGovernor != null) {
+            mQualityGovernor.pause();
+        }
+        mIsFastFlip = false;
+        mFlipVelocity = 0;
+        mLastFlipFrameTime = 0;
+        // pages may change while no flip is drawn
+        mPageSnapshots.clear();
+    }
+
+    private void setRenderQuality(RenderQuality quality) {
+        if (mRenderQuality == quality) {
+            return;
+        }
+        if (mRenderQuality == RenderQuality.SNAPSHOT) {
+            mPageSnapshots.release();
+        }
+        mRenderQuality = quality;
+        invalidate();
+    }
+
     /**
      * Enable a hardware layer for the view.
      *
@@ -1288,31 +2268,6 @@ public class FlipView extends FrameLayout {
         return (localFlipDistance / FLIP_DISTANCE_PER_PAGE) * 180;
     }
 
-    private void postFlippedToPage(final int page) {
-        post(new Runnable() {
-
-            @Override
-            public void run() {
-                if (mOnFlipListener != null) {
-                    final long itemId = page >= mAdapter.getCount() ? 0 : mAdapter.getItemId(page);
-                    mOnFlipListener.onFlippedToPage(FlipView.this, page,
-                            itemId);
-                }
-            }
-        });
-    }
-
-    private void postDistancePassed() {
-        post(new Runnable() {
-            @Override
-            public void run() {
-                if (mOnDistanceListener != null) {
-                    mOnDistanceListener.onDistanceChange(mFlipDistance);
-                }
-            }
-        });
-    }
-
     private void onSecondaryPointerUp(MotionEvent ev) {
         final int pointerIndex = ev.getActionIndex();
         final int pointerId = ev.getPointerId(pointerIndex);
@@ -1358,15 +2313,61 @@ public class FlipView extends FrameLayout {
     }
 
     private int getCurrentPageRound() {
-        return Math.round(mFlipDistance / FLIP_DISTANCE_PER_PAGE);
+        return mFlipPage + Math.round(mFlipDistance / FLIP_DISTANCE_PER_PAGE);
     }
 
     private int getCurrentPageFloor() {
-        return (int) Math.floor(mFlipDistance / FLIP_DISTANCE_PER_PAGE);
+        return mFlipPage + (int) Math.floor(mFlipDistance / FLIP_DISTANCE_PER_PAGE);
     }
 
     private int getCurrentPageCeil() {
-        return (int) Math.ceil(mFlipDistance / FLIP_DISTANCE_PER_PAGE);
+        return mFlipPage + (int) Math.ceil(mFlipDistance / FLIP_DISTANCE_PER_PAGE);
+    }
+
+    /**
+     * @return the end of the current flip relative to mFlipPage. The end is
+     * stored as an absolute int, which is exact for any page count the
+     * Scroller can reach.
+     */
+    private float getEndFlipDistance() {
+        return mCascadeEndFlipDistance - mFlipPage * FLIP_DISTANCE_PER_PAGE;
+    }
+
+    /**
+     * @return the current Scroller position relative to mFlipPage. The page
+     * difference is removed in int arithmetic before converting to float so
+     * long scrolls stay precise.
+     */
+    private float getScrollFlipDistance() {
+        final long units = mScroller.getCurrY()
+                - (long) (mFlipPage - mScrollFlipPage) * FLIP_DISTANCE_PER_PAGE
+                * SCROLL_UNITS_PER_FLIP_DISTANCE;
+        return units / (float) SCROLL_UNITS_PER_FLIP_DISTANCE;
+    }
+
+    /**
+     * Starts the Scroller from the current position towards the given page
+     * plus offset, in scaled units relative to the current mFlipPage.
+     *
+     * @param flipDuration the duration in ms, -1 to base it on the distance
+     * @return false if the distance is too far for the int based Scroller,
+     * the caller should jump instead
+     */
+    private boolean startFlipScroll(int page, float offset, int flipDuration) {
+        final long start = Math.round(mFlipDistance * SCROLL_UNITS_PER_FLIP_DISTANCE);
+        final long end = ((long) (page - mFlipPage) * FLIP_DISTANCE_PER_PAGE + Math.round(offset))
+                * SCROLL_UNITS_PER_FLIP_DISTANCE;
+        final long delta = end - start;
+        if (end > Integer.MAX_VALUE || end < Integer.MIN_VALUE) {
+            return false;
+        }
+        if (flipDuration == -1) {
+            flipDuration = getFlipDuration((int) (delta / SCROLL_UNITS_PER_FLIP_DISTANCE));
+        }
+        restoreTrimmedPages();
+        mScrollFlipPage = mFlipPage;
+        mScroller.startScroll(0, (int) start, 0, (int) delta, flipDuration);
+        return true;
     }
 
     /**
@@ -1394,6 +2395,55 @@ public class FlipView extends FrameLayout {
         return wasScrolling;
     }
 
+    /**
+     * Lets a VelocityOverFlipper take over when released while over flipping
+     * or when flung towards the first or last page.
+     *
+     * @param page     the page to land on
+     * @param velocity the release velocity in pixels per second
+     * @return true if the over flipper is now animating the release
+     */
+    private boolean startOverFlipRelease(int page, int velocity) {
+        if (!(mOverFlipper instanceof VelocityOverFlipper) || mIsFlippingCascade) {
+            return false;
+        }
+
+        final boolean towardsEdge = (page == 0 && velocity > mMinimumVelocity)
+                || (page == mPageCount - 1 && velocity < -mMinimumVelocity);
+        if (!mIsOverFlipping && !towardsEdge) {
+            return false;
+        }
+
+        // a finger moving towards the top/left increases the flip distance
+        final float flipVelocity = -velocity / (((isFlippingVertically() ? getHeight()
+                : getWidth()) / FLIP_DISTANCE_PER_PAGE) * mSpeedMultiplier);
+
+        endFlip();
+        mIsFlippingToDistance = false;
+        mCascadeEndFlipDistance = INVALID_FLIP_DISTANCE;
+        mReleaseFlipPage = mFlipPage;
+        mIsReleasingOverFlip = ((VelocityOverFlipper) mOverFlipper).startRelease(mFlipDistance,
+                flipVelocity, (page - mFlipPage) * FLIP_DISTANCE_PER_PAGE,
+                -mFlipPage * FLIP_DISTANCE_PER_PAGE,
+                (mPageCount - 1 - mFlipPage) * FLIP_DISTANCE_PER_PAGE);
+        if (mIsReleasingOverFlip) {
+            invalidate();
+        }
+        return mIsReleasingOverFlip;
+    }
+
+    /**
+     * @return true if ended an over flip release
+     */
+    private boolean endOverFlipRelease() {
+        final boolean wasReleasing = mIsReleasingOverFlip;
+        if (mIsReleasingOverFlip) {
+            ((VelocityOverFlipper) mOverFlipper).abortRelease();
+            mIsReleasingOverFlip = false;
+        }
+        return wasReleasing;
+    }
+
     /**
      * @return true if ended a peak
      */
@@ -1407,7 +2457,8 @@ public class FlipView extends FrameLayout {
     }
 
     private void peak(boolean next, boolean once) {
-        final float baseFlipDistance = mCurrentPageIndex
+        restoreTrimmedPages();
+        final float baseFlipDistance = (mCurrentPageIndex - mFlipPage)
                 * FLIP_DISTANCE_PER_PAGE;
         if (next) {
             mPeakAnim = ValueAnimator.ofFloat(baseFlipDistance,
@@ -1444,7 +2495,8 @@ public class FlipView extends FrameLayout {
     }
 
     private void updateEmptyStatus() {
-        boolean empty = mAdapter == null || mPageCount == 0;
+        // the snapshot from before a cold start is shown instead of the empty view
+        boolean empty = (mAdapter == null || mPageCount == 0) && mColdStartSnapshot == null;
 
         if (empty) {
             if (mEmptyView != null) {
@@ -1472,14 +2524,16 @@ public class FlipView extends FrameLayout {
         if (mAdapter != null) {
             mAdapter.unregisterDataSetObserver(dataSetObserver);
         }
+        cancelPrefetch();
 
         // remove all the current views
-        removeAllViews();
+        removePageViews();
         mCascadeViews.clear();
         mIsCascadeAnimationPrepared = false;
 
         mAdapter = adapter;
         mPageCount = adapter == null ? 0 : mAdapter.getCount();
+        mPlaceholderViews.clear();
 
         if (adapter != null) {
             mAdapter.registerDataSetObserver(dataSetObserver);
@@ -1492,12 +2546,311 @@ public class FlipView extends FrameLayout {
         // this will be correctly set in setFlipDistance method
         mLastDispatchedPageEventIndex = -1;
         mCurrentPageIndex = INVALID_PAGE_POSITION;
+        mFlipPage = 0;
         mFlipDistance = INVALID_FLIP_DISTANCE;
         setFlipDistance(0, true);
 
         updateEmptyStatus();
     }
 
+    /**
+     * Let the page follow the finger slightly ahead of the last touch sample
+     * while dragging, to hide input latency. The prediction is never used to
+     * decide which page to land on.
+     *
+     * @param horizon how far ahead to predict in ms, 0 (default) disables
+     *                prediction
+     */
+    public void setTouchPredictionHorizon(int horizon) {
+        mTouchPredictionHorizon = Math.max(0, horizon);
+    }
+
+    /**
+     * Takes stock of the memory held by this FlipView, see
+     * {@link MemoryStats} for what is counted. Walks the view trees of all
+     * pages it holds, so don't call this every frame.
+     *
+     * @return a new breakdown of the memory held right now
+     */
+    public MemoryStats getMemoryStats() {
+        final MemoryStats stats = new MemoryStats(Math.max(1, mRecycler.getViewTypeCount()));
+        if (mIsFlippingCascade) {
+            for (View v : mCascadeViews) {
+                stats.addCascadeView(v);
+            }
+        } else {
+            for (Page p : new Page[]{mPreviousPage, mCurrentPage, mNextPage}) {
+                if (p.valid) {
+                    stats.addPage(p.v);
+                }
+            }
+        }
+
+        mRecycler.addTo(stats);
+        for (View v : mPlaceholderViews) {
+            stats.addScrapView(v, -1);
+        }
+
+        // the FlipView itself draws with a layer during a cascade flip
+        if (getLayerType() == LAYER_TYPE_HARDWARE) {
+            stats.addHardwareLayer(this);
+        }
+        for (int i = 0; i < getChildCount(); i++) {
+            final View child = getChildAt(i);
+            if (child.getLayerType() == LAYER_TYPE_HARDWARE) {
+                stats.addHardwareLayer(child);
+            }
+        }
+
+        stats.addOffscreenBitmap(mBitmap);
+        stats.addOffscreenBitmap(mBitmapR);
+        mPageSnapshots.addTo(stats);
+        stats.addOffscreenBitmap(mColdStartSnapshot);
+        return stats;
+    }
+
+    /**
+     * Reports {@link #getMemoryStats()} every interval while this FlipView is
+     * attached to a window, to watch memory during long sessions.
+     *
+     * @param onMemoryStatsListener the listener, null to stop reporting
+     * @param intervalMillis        the time between reports
+     */
+    public void setOnMemoryStatsListener(OnMemoryStatsListener onMemoryStatsListener,
+                                         long intervalMillis) {
+        if (onMemoryStatsListener != null && intervalMillis <= 0) {
+            throw new IllegalArgumentException("intervalMillis must be > 0");
+        }
+        removeCallbacks(mReportMemoryStats);
+        mOnMemoryStatsListener = onMemoryStatsListener;
+        mMemoryStatsInterval = intervalMillis;
+        if (onMemoryStatsListener != null) {
+            // runs once attached if not attached yet
+            postDelayed(mReportMemoryStats, intervalMillis);
+        }
+    }
+
+    /**
+     * Releases what this FlipView holds on to in steps, depending on how low
+     * the system is on memory. Everything released is created again once it
+     * is needed. Called automatically while attached, as the FlipView
+     * registers for {@link ComponentCallbacks2#onTrimMemory(int)}.
+     * <ul>
+     * <li>{@link ComponentCallbacks2#TRIM_MEMORY_RUNNING_MODERATE}: recycled
+     * pages</li>
+     * <li>{@link ComponentCallbacks2#TRIM_MEMORY_RUNNING_LOW}: also hardware
+     * layers and page snapshots</li>
+     * <li>{@link ComponentCallbacks2#TRIM_MEMORY_RUNNING_CRITICAL}: also
+     * offscreen bitmaps and the cascade pages that are not shown</li>
+     * <li>{@link ComponentCallbacks2#TRIM_MEMORY_UI_HIDDEN} and above: also
+     * the pages next to the current one</li>
+     * </ul>
+     *
+     * @param level a level passed to onTrimMemory
+     */
+    public void trimMemory(int level) {
+        if (level < ComponentCallbacks2.TRIM_MEMORY_RUNNING_MODERATE) {
+            return;
+        }
+        // pages being flipped are needed for the next frame
+        final boolean idle = !isFlipInProgress();
+
+        if (idle && level >= ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN && !mIsFlippingCascade) {
+            if (mPreviousPage.valid) {
+                recyclePage(mPreviousPage);
+            }
+            if (mNextPage.valid) {
+                recyclePage(mNextPage);
+            }
+        }
+
+        mRecycler.clear();
+        mPlaceholderViews.clear();
+        if (level < ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW) {
+            return;
+        }
+
+        if (idle) {
+            for (Page p : new Page[]{mPreviousPage, mCurrentPage, mNextPage}) {
+                if (p.valid) {
+                    setDrawWithLayer(p.v, false);
+                }
+            }
+        }
+        if (idle) {
+            mPageSnapshots.release();
+        }
+        if (level < ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL) {
+            return;
+        }
+
+        // still referenced by drawn frames, so left to the garbage collector
+        mBitmap = null;
+        mCanvas = null;
+        mBitmapR = null;
+        mCanvasR = null;
+        mCascadeBitmapsReady = false;
+        if (mColdStartSnapshot != null) {
+            mColdStartSnapshot = null;
+            // the empty view is shown in its place if there are no pages yet
+            updateEmptyStatus();
+            invalidate();
+        }
+        if (idle && mIsFlippingCascade && !mIsCascadeAnimationPrepared) {
+            trimCascadeViews();
+        }
+    }
+
+    /**
+     * Once a cascade flip is done only the page it landed on is shown, keep
+     * just that one as a cascade of a single page.
+     */
+    private void trimCascadeViews() {
+        if (mCascadeViews.size() <= 1) {
+            return;
+        }
+        final View shown = mCascadeViews.get(getNextViewIdx());
+        for (View v : mCascadeViews) {
+            if (v != shown) {
+                removeViewInLayout(v);
+            }
+        }
+        mCascadeViews.clear();
+        mCascadeViews.add(shown);
+        mFlipPage = 0;
+        mFlipDistance = 0;
+        mCascadeEndFlipDistance = 0;
+        invalidate();
+    }
+
+    /**
+     * Creates the pages next to the current one again if they were released
+     * by {@link #trimMemory(int)}, called when a flip or peak starts and when
+     * the flip distance is set from outside. Not from the draw pass, which
+     * only continues flips started that way, and not during a batch update,
+     * the next flip restores them.
+     */
+    private void restoreTrimmedPages() {
+        if (mCurrentPageIndex == INVALID_PAGE_POSITION || mBatchUpdateDepth > 0
+                || mIsFlippingCascade) {
+            return;
+        }
+        if (!mPreviousPage.valid && mCurrentPageIndex > 0) {
+            restoreTrimmedPage(mPreviousPage, mCurrentPageIndex - 1);
+        }
+        if (!mNextPage.valid && mCurrentPageIndex < mPageCount - 1) {
+            restoreTrimmedPage(mNextPage, mCurrentPageIndex + 1);
+        }
+    }
+
+    private void restoreTrimmedPage(Page p, int index) {
+        fillPageForIndex(p, index);
+        // laid out right away, the flip draws it in the next frame
+        LayoutParams params = p.v.getLayoutParams();
+        if (params == null) {
+            params = generateDefaultLayoutParams();
+        }
+        addViewInLayout(p.v, -1, params, true);
+        ensureLaidOut(p.v);
+    }
+
+    /**
+     * Keep a snapshot of the last viewed page on disk. After a cold start the
+     * page is shown from its snapshot right away, in place of the
+     * empty view or the placeholder of its page, until the real page is
+     * ready. Set it as early as possible, before the adapter.
+     *
+     * @param cache the cache, null to stop taking snapshots
+     */
+    public void setSnapshotCache(PageSnapshotCache cache) {
+        mSnapshotCache = cache;
+        if (cache != null && mIsColdStart && mColdStartSnapshot == null) {
+            cache.loadLast(mColdStartSnapshotCallback);
+        }
+    }
+
+    /**
+     * Page snapshots, for fast flips, {@link RenderQuality#SNAPSHOT} and on
+     * API 18, are rasterized by the RenderThread from API 29. Otherwise they
+     * are drawn in software on the UI thread, at most one per frame. With an
+     * executor they are only recorded on the UI thread and rasterized on the
+     * executor, the pages are drawn as usual until their snapshots are
+     * ready. The recording refers to the bitmaps the page shows, so only use
+     * an executor if pages never recycle or change those bitmaps while they
+     * are shown. Pages showing hardware bitmaps are never drawn in software.
+     *
+     * @param executor the executor to rasterize on, null (default) to draw
+     *                 the snapshots on the UI thread
+     */
+    public void setSnapshotExecutor(Executor executor) {
+        mPageSnapshots.release();
+        mPageSnapshots.setExecutor(executor);
+    }
+
+    /**
+     * Draw the pages from reduced resolution snapshots while a flip moves
+     * faster than the fast flip velocity, when detail can't be seen anyway.
+     * Full resolution is drawn again once the flip slows down and lands.
+     *
+     * @param scale the resolution of the snapshots relative to the pages,
+     *              between 0 and 1. 1 (default) disables reduced resolution.
+     */
+    public void setFastFlipScale(float scale) {
+        if (scale <= 0 || scale > 1) {
+            throw new IllegalArgumentException("scale must be > 0 and <= 1");
+        }
+        mFastFlipScale = scale;
+        if (scale == 1f) {
+            mIsFastFlip = false;
+        }
+    }
+
+    /**
+     * @param pagesPerSecond how fast a flip has to move for reduced resolution
+     *                       snapshots to be drawn, the default is 5 pages per
+     *                       second
+     */
+    public void setFastFlipVelocity(float pagesPerSecond) {
+        if (pagesPerSecond <= 0) {
+            throw new IllegalArgumentException("pagesPerSecond must be > 0");
+        }
+        mFastFlipVelocity = pagesPerSecond;
+    }
+
+    /**
+     * Create and prepare the pages of a {@link FlipAdapter} off the UI thread
+     * on a background thread of the FlipView. A placeholder is shown until
+     * the page is ready. Has no effect for other adapters.
+     *
+     * @param enabled
+     */
+    public void setAsyncPageCreation(boolean enabled) {
+        setAsyncPageCreation(enabled ? AsyncPageLoader.getDefaultExecutor() : null);
+    }
+
+    /**
+     * @param executor the executor pages are created on, null to create them
+     *                 on the UI thread. The adapter's LayoutInflater must
+     *                 not be used on several threads at once, so prefer a
+     *                 serial executor.
+     */
+    public void setAsyncPageCreation(Executor executor) {
+        mAsyncPageLoader = executor == null ? null
+                : new AsyncPageLoader(this, mAsyncPageCallback, executor);
+    }
+
+    /**
+     * @param distance how many pages ahead to hint to a {@link PrefetchAdapter},
+     *                 more are hinted during fast flips. 0 disables the hints,
+     *                 the default is 2.
+     */
+    public void setPrefetchDistance(int distance) {
+        mPrefetchDistance = Math.max(0, distance);
+        if (mPrefetchDistance == 0) {
+            cancelPrefetch();
+        }
+    }
+
     public void setDrawShadows(boolean enabled) {
         mDrawShadows = enabled;
     }
@@ -1506,6 +2859,59 @@ public class FlipView extends FrameLayout {
         mDrawOverFlip = enabled;
     }
 
+    boolean isDrawingOverFlip() {
+        return mDrawOverFlip && mRenderQuality.ordinal() < RenderQuality.LOW.ordinal();
+    }
+
+    /**
+     * Let the FlipView measure how long its flip frames take and lower the
+     * {@link RenderQuality} while frames are missed, down to the minimum
+     * quality. The quality is raised again step by step once flips run
+     * smoothly. Disabled by default, which always draws at full quality.
+     *
+     * @param enabled
+     */
+    public void setAdaptiveQuality(boolean enabled) {
+        if (enabled == (mQualityGovernor != null)) {
+            return;
+        }
+        if (enabled) {
+            mQualityGovernor = new QualityGovernor();
+            mQualityGovernor.setFrameBudget(getFrameBudget());
+            mQualityGovernor.setMinQuality(mMinRenderQuality);
+        } else {
+            mQualityGovernor = null;
+            setRenderQuality(RenderQuality.FULL);
+        }
+    }
+
+    public boolean isAdaptiveQuality() {
+        return mQualityGovernor != null;
+    }
+
+    /**
+     * @param quality the lowest quality adaptive quality may drop to, the
+     *                default is {@link RenderQuality#SNAPSHOT}
+     */
+    public void setMinRenderQuality(RenderQuality quality) {
+        if (quality == null) {
+            throw new IllegalArgumentException("quality can't be null");
+        }
+        mMinRenderQuality = quality;
+        if (mQualityGovernor != null) {
+            mQualityGovernor.setMinQuality(quality);
+            setRenderQuality(mQualityGovernor.getQuality());
+        }
+    }
+
+    /**
+     * @return the quality flips are currently drawn at, always
+     * {@link RenderQuality#FULL} unless adaptive quality is enabled
+     */
+    public RenderQuality getRenderQuality() {
+        return mRenderQuality;
+    }
+
     public void setDrawShadesAndShines(boolean enabled) {
         mDrawShadesAndShines = enabled;
     }
@@ -1536,10 +2942,11 @@ public class FlipView extends FrameLayout {
 
     public void setFlippingCascade(boolean enabled) {
         if (!enabled && mCurrentPageIndex != INVALID_PAGE_POSITION) {
-            removeAllViews();
+            removePageViews();
             mCascadeViews.clear();
             mIsCascadeAnimationPrepared = false;
-            mFlipDistance = mCurrentPageIndex * FLIP_DISTANCE_PER_PAGE;
+            mFlipPage = mCurrentPageIndex;
+            mFlipDistance = 0;
             mCurrentPageIndex = -1;
         }
         mIsFlippingCascade = enabled;
@@ -1569,7 +2976,89 @@ public class FlipView extends FrameLayout {
         return mCurrentPageIndex;
     }
 
+    /**
+     * Notify that itemCount items were inserted at positionStart. Unlike
+     * notifyDataSetChanged on the adapter, only the affected pages are
+     * rebound. The adapter must already reflect the change.
+     */
+    public void notifyItemRangeInserted(int positionStart, int itemCount) {
+        mPageUpdates.add(positionStart, itemCount);
+        applyPendingPageUpdates();
+    }
+
+    /**
+     * Notify that itemCount items starting at positionStart were removed.
+     */
+    public void notifyItemRangeRemoved(int positionStart, int itemCount) {
+        mPageUpdates.remove(positionStart, itemCount);
+        applyPendingPageUpdates();
+    }
+
+    /**
+     * Notify that the content of itemCount items starting at positionStart
+     * changed.
+     */
+    public void notifyItemRangeChanged(int positionStart, int itemCount) {
+        mPageUpdates.change(positionStart, itemCount);
+        applyPendingPageUpdates();
+    }
+
+    /**
+     * Notify that the item at fromPosition moved to toPosition.
+     */
+    public void notifyItemMoved(int fromPosition, int toPosition) {
+        mPageUpdates.move(fromPosition, toPosition);
+        applyPendingPageUpdates();
+    }
+
+    /**
+     * Collect all adapter changes, including notifyDataSetChanged, until the
+     * matching {@link #endBatchUpdate()} and apply them as one update. Calls
+     * may be nested. Flipping and all flip animations are stopped for the
+     * duration of the batch, as the adapter no longer matches the pages on
+     * screen. A page left halfway is settled once the batch ends.
+     */
+    public void beginBatchUpdate() {
+        if (mBatchUpdateDepth++ == 0) {
+            endFlip();
+            endPeak();
+            endScroll();
+            endOverFlipRelease();
+        }
+    }
+
+    /**
+     * Apply the changes collected since {@link #beginBatchUpdate()} once the
+     * outermost batch ends.
+     */
+    public void endBatchUpdate() {
+        if (mBatchUpdateDepth == 0) {
+            throw new IllegalStateException("endBatchUpdate() without beginBatchUpdate()");
+        }
+        if (--mBatchUpdateDepth == 0) {
+            applyPendingPageUpdates();
+            // settle a flip that was stopped halfway by beginBatchUpdate
+            if (!mIsFlippingCascade && mCurrentPageIndex != INVALID_PAGE_POSITION
+                    && Math.abs(mFlipDistance) > EPSILON && !isFlipInProgress()) {
+                smoothFlipTo(mCurrentPageIndex);
+            }
+        }
+    }
+
+    public boolean isInBatchUpdate() {
+        return mBatchUpdateDepth > 0;
+    }
+
+    private void applyPendingPageUpdates() {
+        if (mBatchUpdateDepth > 0) {
+            return;
+        }
+        applyPageUpdates(mPageUpdates);
+        mPageUpdates.clear();
+    }
+
     public void flipTo(int page) {
+        endOverFlipRelease();
         mIsFlippingEnabled = false;
         setFlippingCascade(false);
         mIsFlippingToDistance = false;
@@ -1578,7 +3067,8 @@ public class FlipView extends FrameLayout {
             throw new IllegalArgumentException("Flipping to page " + page + " page count " + mPageCount);
         }
         endFlip();
-        setFlipDistance(page * FLIP_DISTANCE_PER_PAGE, true);
+        mFlipPage = page;
+        setFlipDistance(0, true);
     }
 
     public void flipBy(int delta) {
@@ -1589,15 +3079,21 @@ public class FlipView extends FrameLayout {
         if (page < 0 || page > mPageCount - 1) {
             throw new IllegalArgumentException("That page does not exist");
         }
+        endOverFlipRelease();
         mIsFlippingToDistance = false;
-        final int start = (int) mFlipDistance;
+        if (page != mCurrentPageIndex) {
+            prefetchFrom(page, page > mCurrentPageIndex, 0);
+        }
 
         if (!mIsFlippingCascade) {
-            final int delta = page * FLIP_DISTANCE_PER_PAGE - start;
             endFlip();
-            mCascadeEndFlipDistance = start + delta;
-            mScroller.startScroll(0, start, 0, delta, getFlipDuration(delta));
+            mCascadeEndFlipDistance = page * FLIP_DISTANCE_PER_PAGE;
+            if (!startFlipScroll(page, 0, -1)) {
+                flipTo(page);
+                return;
+            }
         } else {
+            mFlipPage = 0;
             if (mCurrentPageIndex < page) {
                 mFlipDistance = 0;
             } else {
@@ -1616,9 +3112,10 @@ public class FlipView extends FrameLayout {
         endFlip();
         // get views from adapter to draw
         recycleActiveViews();
-        removeAllViews();
+        removePageViews();
         mCascadeViews.clear();
         // TODO: takes all views between the current one and the destination one, should be limited by a number
+        mFlipPage = 0;
         if (mCurrentPageIndex < page) {
             mFlipDistance = 0;
             mCascadeEndFlipDistance = FLIP_DISTANCE_PER_PAGE + mCascadeOffset * (getPageCount() - 2);
@@ -1649,17 +3146,15 @@ public class FlipView extends FrameLayout {
         if (distance < 0 || distance > (mPageCount - 1) * FLIP_DISTANCE_PER_PAGE) {
             throw new IllegalArgumentException("That distance does not exist");
         }
-        final int start = (int) mFlipDistance;
-
         if (!mIsFlippingCascade) {
-            final int delta = distance - start;
+            final int page = distance / FLIP_DISTANCE_PER_PAGE;
             endFlip();
-            mCascadeEndFlipDistance = start + delta;
+            mCascadeEndFlipDistance = distance;
             mIsFlippingToDistance = true;
-            if (flipDuration == -1) {
-                flipDuration = getFlipDuration(delta);
+            if (!startFlipScroll(page, distance - page * FLIP_DISTANCE_PER_PAGE, flipDuration)) {
+                setFlipDistance((float) distance);
+                return;
             }
-            mScroller.startScroll(0, start, 0, delta, flipDuration);
         }
 
         invalidate();
@@ -1669,11 +3164,26 @@ public class FlipView extends FrameLayout {
         endFlip();
         mIsFlippingToDistance = true;
         mCascadeEndFlipDistance = (int) flipDistance;
-        setFlipDistance(flipDistance, true);
+        if (mIsFlippingCascade) {
+            setFlipDistance(flipDistance, true);
+            return;
+        }
+        final int page = (int) Math.floor(flipDistance / FLIP_DISTANCE_PER_PAGE);
+        mFlipPage = page;
+        setFlipDistance(flipDistance - page * (float) FLIP_DISTANCE_PER_PAGE, true);
+        // staying on the same page keeps its neighbours, they may be trimmed
+        if (Math.abs(mFlipDistance) > EPSILON) {
+            restoreTrimmedPages();
+        }
     }
 
+    /**
+     * @return the flip distance from the first page, FLIP_DISTANCE_PER_PAGE
+     * per page. With very many pages the float loses precision, the view
+     * itself keeps the position as a page plus an in page offset.
+     */
     public float getFlipDistance() {
-        return mFlipDistance;
+        return mFlipPage * (float) FLIP_DISTANCE_PER_PAGE + mFlipDistance;
     }
 
     /**
@@ -1715,16 +3225,45 @@ public class FlipView extends FrameLayout {
      * @param onFlipListener
      */
     public void setOnFlipListener(OnFlipListener onFlipListener) {
-        mOnFlipListener = onFlipListener;
+        mEventDispatcher.setOnFlipListener(onFlipListener);
     }
 
     /**
-     * The OnDistanceListener will notify you when a distance point is passed forward (true) or backwards (false).
+     * The OnDistanceListener is called at most once per frame with the latest
+     * flip distance, the distances passed in between are not reported. To be
+     * notified when certain flip distances are passed, and in which
+     * direction, see {@link #setOnDistanceThresholdListener}.
      *
      * @param onDistanceListener
      */
     public void setOnDistanceListener(OnDistanceListener onDistanceListener) {
-        mOnDistanceListener = onDistanceListener;
+        mEventDispatcher.setOnDistanceListener(onDistanceListener);
+    }
+
+    /**
+     * The OnDistanceSamplesListener is called at most once per frame with
+     * every flip distance that was passed since the previous frame.
+     *
+     * @param onDistanceSamplesListener
+     */
+    public void setOnDistanceSamplesListener(OnDistanceSamplesListener onDistanceSamplesListener) {
+        mEventDispatcher.setOnDistanceSamplesListener(onDistanceSamplesListener);
+    }
+
+    /**
+     * The OnDistanceThresholdListener will notify you when one of the given
+     * flip distances is passed forward (true) or backwards (false). A
+     * threshold counts as passed while the flip distance is at or beyond it.
+     * Unlike the OnDistanceListener it is not called for the flip distances
+     * in between.
+     *
+     * @param thresholds                  the flip distances to be notified of, in any order.
+     *                                    The array is copied.
+     * @param onDistanceThresholdListener
+     */
+    public void setOnDistanceThresholdListener(float[] thresholds,
+                                               OnDistanceThresholdListener onDistanceThresholdListener) {
+        mEventDispatcher.setOnDistanceThresholdListener(thresholds, onDistanceThresholdListener);
     }
 
     /**
@@ -1734,7 +3273,24 @@ public class FlipView extends FrameLayout {
      * @param onOverFlipListener
      */
     public void setOnOverFlipListener(OnOverFlipListener onOverFlipListener) {
-        this.mOnOverFlipListener = onOverFlipListener;
+        mEventDispatcher.setOnOverFlipListener(onOverFlipListener);
+    }
+
+    /**
+     * The OnPageLifecycleListener follows which pages are attached and how
+     * much of them is visible, it is updated once after every drawn frame.
+     *
+     * @param onPageLifecycleListener
+     */
+    public void setOnPageLifecycleListener(OnPageLifecycleListener onPageLifecycleListener) {
+        if (mOnPageLifecycleListener != null && onPageLifecycleListener != mOnPageLifecycleListener) {
+            // the old listener sees its pages go, the new one starts afresh
+            updatePageLifecycle(true);
+        }
+        mOnPageLifecycleListener = onPageLifecycleListener;
+        if (onPageLifecycleListener != null) {
+            invalidate();
+        }
     }
 
     /**
@@ -1748,12 +3304,22 @@ public class FlipView extends FrameLayout {
      * Set the overflip mode of the flipview. GLOW is the standard seen in all
      * andriod lists. RUBBER_BAND is more like iOS lists which list you flip
      * past the first/last page but adding friction, like a rubber band.
+     * SPRING adds friction like RUBBER_BAND but springs back carrying the
+     * release velocity, also when flinging into the first/last page. CUSTOM
+     * uses the OverFlipper registered with
+     * {@link OverFlipperFactory#register(OverFlipMode, OverFlipperFactory.Creator)},
+     * or GLOW while none is registered.
      *
      * @param overFlipMode
      */
     public void setOverFlipMode(OverFlipMode overFlipMode) {
+        endOverFlipRelease();
         this.mOverFlipMode = overFlipMode;
         mOverFlipper = OverFlipperFactory.create(this, mOverFlipMode);
+        if (getWidth() > 0 && getHeight() > 0) {
+            mOverFlipper.onSizeChanged(getWidth(), getHeight());
+        }
+        mOverFlipView.invalidate();
     }
 
     /**
@@ -1,6 +1,7 @@
 package se.emilsjolander.flipview;
 
 import android.graphics.Canvas;
+import android.graphics.Matrix;
 import android.widget.EdgeEffect;
 
 public class GlowOverFlipper implements OverFlipper {
@@ -10,66 +11,67 @@ public class GlowOverFlipper implements OverFlipper {
     private FlipView mFlipView;
     private float mTotalOverFlip;
 
+    // edge transforms and pull size, only updated when the size changes
+    private final Matrix mTopEdgeMatrix = new Matrix();
+    private final Matrix mBottomEdgeMatrix = new Matrix();
+    private float mPullSize;
+
     public GlowOverFlipper(FlipView v) {
         mFlipView = v;
         mTopEdgeEffect = new EdgeEffect(v.getContext());
         mBottomEdgeEffect = new EdgeEffect(v.getContext());
     }
 
+    @Override
+    public void onSizeChanged(int width, int height) {
+        mTopEdgeMatrix.reset();
+        mBottomEdgeMatrix.reset();
+        if (mFlipView.isFlippingVertically()) {
+            mTopEdgeEffect.setSize(width, height);
+            mBottomEdgeEffect.setSize(width, height);
+            mBottomEdgeMatrix.preRotate(180);
+            mBottomEdgeMatrix.preTranslate(-width, -height);
+            mPullSize = height;
+        } else {
+            mTopEdgeEffect.setSize(height, width);
+            mBottomEdgeEffect.setSize(height, width);
+            mTopEdgeMatrix.preRotate(270);
+            mTopEdgeMatrix.preTranslate(-height, 0);
+            mBottomEdgeMatrix.preRotate(90);
+            mBottomEdgeMatrix.preTranslate(0, -width);
+            mPullSize = width;
+        }
+    }
+
     @Override
     public float calculate(float flipDistance, float minFlipDistance,
                            float maxFlipDistance) {
-        float deltaOverFlip = flipDistance - (flipDistance < 0 ? minFlipDistance : maxFlipDistance);
+        float deltaOverFlip = flipDistance - (flipDistance < minFlipDistance ? minFlipDistance : maxFlipDistance);
 
         mTotalOverFlip += deltaOverFlip;
 
-        if (deltaOverFlip > 0) {
-            mBottomEdgeEffect.onPull(deltaOverFlip
-                    / (mFlipView.isFlippingVertically() ? mFlipView.getHeight() : mFlipView.getWidth()));
-        } else if (deltaOverFlip < 0) {
-            mTopEdgeEffect.onPull(-deltaOverFlip
-                    / (mFlipView.isFlippingVertically() ? mFlipView.getHeight() : mFlipView.getWidth()));
+        if (mPullSize > 0) {
+            if (deltaOverFlip > 0) {
+                mBottomEdgeEffect.onPull(deltaOverFlip / mPullSize);
+            } else if (deltaOverFlip < 0) {
+                mTopEdgeEffect.onPull(-deltaOverFlip / mPullSize);
+            }
         }
-        return flipDistance < 0 ? minFlipDistance : maxFlipDistance;
+        return flipDistance < minFlipDistance ? minFlipDistance : maxFlipDistance;
     }
 
     @Override
     public boolean draw(Canvas c) {
-        return drawTopEdgeEffect(c) | drawBottomEdgeEffect(c);
+        return drawEdgeEffect(c, mTopEdgeEffect, mTopEdgeMatrix)
+                | drawEdgeEffect(c, mBottomEdgeEffect, mBottomEdgeMatrix);
     }
 
-    private boolean drawTopEdgeEffect(Canvas canvas) {
+    private boolean drawEdgeEffect(Canvas canvas, EdgeEffect edgeEffect, Matrix edgeMatrix) {
         boolean needsMoreDrawing = false;
-        if (!mTopEdgeEffect.isFinished()) {
+        if (!edgeEffect.isFinished()) {
             canvas.save();
-            if (mFlipView.isFlippingVertically()) {
-                mTopEdgeEffect.setSize(mFlipView.getWidth(), mFlipView.getHeight());
-                canvas.rotate(0);
-            } else {
-                mTopEdgeEffect.setSize(mFlipView.getHeight(), mFlipView.getWidth());
-                canvas.rotate(270);
-                canvas.translate(-mFlipView.getHeight(), 0);
-            }
-            needsMoreDrawing = mTopEdgeEffect.draw(canvas);
-            canvas.restore();
-        }
-        return needsMoreDrawing;
-    }
-
-    private boolean drawBottomEdgeEffect(Canvas canvas) {
-        boolean needsMoreDrawing = false;
-        if (!mBottomEdgeEffect.isFinished()) {
-            canvas.save();
-            if (mFlipView.isFlippingVertically()) {
-                mBottomEdgeEffect.setSize(mFlipView.getWidth(), mFlipView.getHeight());
-                canvas.rotate(180);
-                canvas.translate(-mFlipView.getWidth(), -mFlipView.getHeight());
-            } else {
-                mBottomEdgeEffect.setSize(mFlipView.getHeight(), mFlipView.getWidth());
-                canvas.rotate(90);
-                canvas.translate(0, -mFlipView.getWidth());
-            }
-            needsMoreDrawing = mBottomEdgeEffect.draw(canvas);
+            canvas.concat(edgeMatrix);
+            needsMoreDrawing = edgeEffect.draw(canvas);
             canvas.restore();
         }
         return needsMoreDrawing;
@@ -0,0 +1,599 @@
+package se.emilsjolander.flipview;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.BitmapRegionDecoder;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.os.AsyncTask;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.LruCache;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * An adapter for image flipbooks. Every page shows one image, center cropped
+ * to fill the page. Images are decoded on a background executor at the size
+ * of the page, sampled down and limited to the cropped region so nothing is
+ * decoded that is not shown, then scaled to the exact page size. While a
+ * page only peeks in during a flip, only the visible half is decoded.
+ * Decoded pages are kept in a cache sized for the pages around the current
+ * one, and the memory of bitmaps dropped from it is reused for the next
+ * decodes once no page can draw them anymore.
+ */
+public abstract class ImagePageAdapter extends PageRendererAdapter<ImagePageAdapter.ImageRenderer>
+        implements PrefetchAdapter {
+
+    /**
+     * Draws the decoded image of a page, or the placeholder until it is
+     * decoded.
+     */
+    public static class ImageRenderer implements PageRenderer {
+
+        private final ImagePageAdapter mAdapter;
+        int position = -1;
+        long id;
+        // drawn since the renderer was bound, its view or a snapshot of it may still draw them
+        final List<Bitmap> drawn = new ArrayList<>();
+
+        ImageRenderer(ImagePageAdapter adapter) {
+            mAdapter = adapter;
+        }
+
+        @Override
+        public void draw(Canvas canvas, int width, int height) {
+            mAdapter.drawPage(this, canvas, width, height);
+        }
+
+        public int getPosition() {
+            return position;
+        }
+    }
+
+    // the part of a page an image is decoded for
+    private static final int PART_FULL = 0;
+    private static final int PART_TOP = 1;
+    private static final int PART_BOTTOM = 2;
+    private static final int PART_LEFT = 3;
+    private static final int PART_RIGHT = 4;
+    private static final int PART_COUNT = 5;
+
+    // bitmaps dropped from the cache that are kept to decode into
+    private static final int MAX_REUSABLE_BITMAPS = 2;
+
+    private final Executor mExecutor;
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+    private final List<ImageRenderer> mRenderers = new ArrayList<>();
+    private final Map<Key, DecodeTask> mPendingDecodes = new HashMap<>();
+    private final List<Bitmap> mReusableBitmaps = new ArrayList<>();
+    // dropped from the cache but maybe still drawn, main thread only
+    private final List<Bitmap> mRetiredBitmaps = new ArrayList<>();
+    private final LruCache<Key, Bitmap> mCache = new LruCache<Key, Bitmap>(1) {
+
+        @Override
+        protected int sizeOf(Key key, Bitmap bitmap) {
+            return bitmap.getByteCount();
+        }
+
+        @Override
+        protected void entryRemoved(boolean evicted, Key key, Bitmap oldValue, Bitmap newValue) {
+            if (oldValue != newValue && oldValue.isMutable()) {
+                mRetiredBitmaps.add(oldValue);
+            }
+        }
+    };
+
+    private int mOffscreenPageLimit = 1;
+    private int mPageWidth;
+    private int mPageHeight;
+    private int mPlaceholderColor;
+
+    // reused on the main thread while drawing
+    private final Key mLookupKey = new Key();
+    private final Rect mClipRect = new Rect();
+    private final Rect mPartRect = new Rect();
+    private final Paint mPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+    // scales decodes down on the decode executor, only read there
+    private final Paint mScalePaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+
+    /**
+     * Decodes on {@link AsyncTask#THREAD_POOL_EXECUTOR}.
+     */
+    public ImagePageAdapter() {
+        this(AsyncTask.THREAD_POOL_EXECUTOR);
+    }
+
+    /**
+     * @param executor the executor images are decoded on
+     */
+    public ImagePageAdapter(Executor executor) {
+        mExecutor = executor;
+    }
+
+    /**
+     * Open the encoded image of the page at position, called on the decode
+     * executor. The stream is closed by the adapter.
+     */
+    public abstract InputStream openImage(int position) throws IOException;
+
+    /**
+     * @param limit how many pages on either side of the current one to keep
+     *              decoded and to decode ahead. At least 1, the default.
+     */
+    public void setOffscreenPageLimit(int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Can't have an offscreen page limit < 1");
+        }
+        mOffscreenPageLimit = limit;
+        resizeCache();
+    }
+
+    /**
+     * @param color drawn while the image of a page is decoded, transparent by
+     *              default
+     */
+    public void setPlaceholderColor(int color) {
+        mPlaceholderColor = color;
+    }
+
+    /**
+     * Drops all decoded pages, they are decoded again when shown.
+     */
+    public void clearCache() {
+        mCache.evictAll();
+        mRetiredBitmaps.clear();
+        synchronized (mReusableBitmaps) {
+            mReusableBitmaps.clear();
+        }
+    }
+
+    @Override
+    public void notifyDataSetChanged() {
+        // without stable ids the pages are cached by position
+        if (!hasStableIds()) {
+            clearCache();
+        }
+        super.notifyDataSetChanged();
+    }
+
+    @Override
+    public ImageRenderer onCreateRenderer(int viewType) {
+        final ImageRenderer renderer = new ImageRenderer(this);
+        mRenderers.add(renderer);
+        return renderer;
+    }
+
+    @Override
+    public void onBindRenderer(ImageRenderer renderer, int position) {
+        renderer.position = position;
+        renderer.id = getItemId(position);
+        renderer.drawn.clear();
+    }
+
+    /**
+     * Decodes the pages expected next, as far as the cache can hold them.
+     */
+    @Override
+    public void onPrefetch(int first, int last, boolean forward) {
+        if (mPageWidth <= 0 || mPageHeight <= 0) {
+            return;
+        }
+        final int count = Math.min(last - first + 1, mOffscreenPageLimit);
+        for (int i = 0; i < count; i++) {
+            final int position = forward ? first + i : last - i;
+            if (position >= 0 && position < getCount()) {
+                decode(position, getItemId(position), PART_FULL, mPageWidth, mPageHeight, true);
+            }
+        }
+    }
+
+    /**
+     * Cancels the decodes started only by a prefetch. Decodes a page has
+     * been drawn waiting for are kept, as are those of attached pages.
+     */
+    @Override
+    public void onCancelPrefetch(int first, int last) {
+        final Iterator<DecodeTask> it = mPendingDecodes.values().iterator();
+        while (it.hasNext()) {
+            final DecodeTask task = it.next();
+            if (task.position >= first && task.position <= last && task.drawRequests == 0
+                    && !isAttached(task.key.id)) {
+                task.cancelled = true;
+                it.remove();
+            }
+        }
+    }
+
+    private void drawPage(ImageRenderer renderer, Canvas canvas, int width, int height) {
+        if (width <= 0 || height <= 0) {
+            return;
+        }
+        if (width != mPageWidth || height != mPageHeight) {
+            mPageWidth = width;
+            mPageHeight = height;
+            resizeCache();
+        }
+        releaseRetiredBitmaps();
+
+        final Bitmap full = getCached(renderer.id, PART_FULL, width, height);
+        if (full != null) {
+            mPartRect.set(0, 0, width, height);
+            canvas.drawBitmap(full, null, mPartRect, mPaint);
+            addDrawn(renderer, full);
+            return;
+        }
+
+        if (mPlaceholderColor != 0) {
+            canvas.drawColor(mPlaceholderColor);
+        }
+        // show the halves decoded while the page was peeking
+        for (int part = PART_TOP; part < PART_COUNT; part++) {
+            final Bitmap half = getCached(renderer.id, part, width, height);
+            if (half != null) {
+                mPartRect.set(0, 0, width, height);
+                setPart(mPartRect, part);
+                canvas.drawBitmap(half, null, mPartRect, mPaint);
+                addDrawn(renderer, half);
+            }
+        }
+
+        // a page peeking in during a flip is clipped to one of its halves
+        canvas.getClipBounds(mClipRect);
+        final int part = getVisiblePart(mClipRect, width, height);
+        if (part == PART_FULL || getCached(renderer.id, part, width, height) == null) {
+            decode(renderer.position, renderer.id, part, width, height, false);
+        }
+    }
+
+    private static void addDrawn(ImageRenderer renderer, Bitmap bitmap) {
+        if (!renderer.drawn.contains(bitmap)) {
+            renderer.drawn.add(bitmap);
+        }
+    }
+
+    /**
+     * @return true if a page of the item is attached to the FlipView
+     */
+    private boolean isAttached(long id) {
+        for (ImageRenderer renderer : mRenderers) {
+            if (renderer.id == id && isRendererAttached(renderer)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Called while a frame is drawn. Retired bitmaps no attached page has
+     * drawn are not part of this frame, they are reused once it has been
+     * handed to the renderer.
+     */
+    private void releaseRetiredBitmaps() {
+        if (mRetiredBitmaps.isEmpty()) {
+            return;
+        }
+        List<Bitmap> released = null;
+        final Iterator<Bitmap> it = mRetiredBitmaps.iterator();
+        while (it.hasNext()) {
+            final Bitmap bitmap = it.next();
+            if (!isDrawnByAttachedPage(bitmap)) {
+                it.remove();
+                if (released == null) {
+                    released = new ArrayList<>();
+                }
+                released.add(bitmap);
+            }
+        }
+        if (released != null) {
+            final List<Bitmap> bitmaps = released;
+            mHandler.post(new Runnable() {
+
+                @Override
+                public void run() {
+                    for (Bitmap bitmap : bitmaps) {
+                        offerReusableBitmap(bitmap);
+                    }
+                }
+            });
+        }
+    }
+
+    private boolean isDrawnByAttachedPage(Bitmap bitmap) {
+        for (ImageRenderer renderer : mRenderers) {
+            if (renderer.drawn.contains(bitmap) && isRendererAttached(renderer)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Bitmap getCached(long id, int part, int width, int height) {
+        mLookupKey.set(id, part, width, height);
+        return mCache.get(mLookupKey);
+    }
+
+    private static int getVisiblePart(Rect clip, int width, int height) {
+        if (clip.bottom <= height / 2) {
+            return PART_TOP;
+        } else if (clip.top >= height / 2) {
+            return PART_BOTTOM;
+        } else if (clip.right <= width / 2) {
+            return PART_LEFT;
+        } else if (clip.left >= width / 2) {
+            return PART_RIGHT;
+        }
+        return PART_FULL;
+    }
+
+    /**
+     * Shrinks rect to the given part of it.
+     */
+    private static void setPart(Rect rect, int part) {
+        final int centerX = (rect.left + rect.right) / 2;
+        final int centerY = (rect.top + rect.bottom) / 2;
+        switch (part) {
+            case PART_TOP:
+                rect.bottom = centerY;
+                break;
+            case PART_BOTTOM:
+                rect.top = centerY;
+                break;
+            case PART_LEFT:
+                rect.right = centerX;
+                break;
+            case PART_RIGHT:
+                rect.left = centerX;
+                break;
+        }
+    }
+
+    /**
+     * Keeps the decoded pages of the offscreen window, plus the halves of
+     * one peeking page.
+     */
+    private void resizeCache() {
+        if (mPageWidth <= 0 || mPageHeight <= 0) {
+            return;
+        }
+        final long pageBytes = (long) mPageWidth * mPageHeight * 4;
+        final long maxBytes = pageBytes * (2 * mOffscreenPageLimit + 2);
+        mCache.resize((int) Math.min(maxBytes, Integer.MAX_VALUE));
+    }
+
+    /**
+     * @param prefetch true if no page is drawn waiting for the decode
+     */
+    private void decode(int position, long id, int part, int width, int height,
+                        boolean prefetch) {
+        final Key key = new Key();
+        key.set(id, part, width, height);
+        final DecodeTask pending = mPendingDecodes.get(key);
+        if (pending != null) {
+            if (!prefetch) {
+                pending.drawRequests++;
+            }
+            return;
+        }
+        if (mCache.get(key) != null) {
+            return;
+        }
+        final DecodeTask task = new DecodeTask(position, key);
+        if (!prefetch) {
+            task.drawRequests++;
+        }
+        mPendingDecodes.put(key, task);
+        mExecutor.execute(task);
+    }
+
+    private void onDecoded(DecodeTask task, Bitmap bitmap) {
+        if (mPendingDecodes.get(task.key) == task) {
+            mPendingDecodes.remove(task.key);
+        }
+        if (bitmap == null || task.cancelled) {
+            return;
+        }
+        mCache.put(task.key, bitmap);
+        for (ImageRenderer renderer : mRenderers) {
+            if (renderer.id == task.key.id) {
+                invalidateRenderer(renderer);
+            }
+        }
+    }
+
+    private void offerReusableBitmap(Bitmap bitmap) {
+        synchronized (mReusableBitmaps) {
+            if (mReusableBitmaps.size() < MAX_REUSABLE_BITMAPS && bitmap.isMutable()) {
+                mReusableBitmaps.add(bitmap);
+            }
+        }
+    }
+
+    private Bitmap takeReusableBitmap(int width, int height) {
+        synchronized (mReusableBitmaps) {
+            for (int i = 0; i < mReusableBitmaps.size(); i++) {
+                final Bitmap bitmap = mReusableBitmaps.get(i);
+                if (bitmap.getWidth() == width && bitmap.getHeight() == height) {
+                    return mReusableBitmaps.remove(i);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Identifies a decoded image by the item, the part of the page and the
+     * page size.
+     */
+    private static final class Key {
+
+        long id;
+        int part;
+        int width;
+        int height;
+
+        void set(long id, int part, int width, int height) {
+            this.id = id;
+            this.part = part;
+            this.width = width;
+            this.height = height;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            final Key other = (Key) o;
+            return id == other.id && part == other.part && width == other.width
+                    && height == other.height;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = (int) (id ^ (id >>> 32));
+            result = 31 * result + part;
+            result = 31 * result + width;
+            return 31 * result + height;
+        }
+    }
+
+    private class DecodeTask implements Runnable {
+
+        final int position;
+        final Key key;
+        volatile boolean cancelled;
+        // how often a page was drawn waiting for it, main thread only
+        int drawRequests;
+
+        DecodeTask(int position, Key key) {
+            this.position = position;
+            this.key = key;
+        }
+
+        @Override
+        public void run() {
+            final Bitmap bitmap = cancelled ? null : decode();
+            mHandler.post(new Runnable() {
+
+                @Override
+                public void run() {
+                    onDecoded(DecodeTask.this, bitmap);
+                }
+            });
+        }
+
+        private Bitmap decode() {
+            InputStream in = null;
+            BitmapRegionDecoder decoder = null;
+            try {
+                in = openImage(position);
+                if (in == null) {
+                    return null;
+                }
+                decoder = BitmapRegionDecoder.newInstance(in, false);
+
+                // the region of the image shown in this part of the page
+                final Rect region = new Rect();
+                centerCrop(decoder.getWidth(), decoder.getHeight(), key.width, key.height, region);
+                setPart(region, key.part);
+                final int targetWidth = key.part == PART_LEFT || key.part == PART_RIGHT
+                        ? key.width / 2 : key.width;
+                final int targetHeight = key.part == PART_TOP || key.part == PART_BOTTOM
+                        ? key.height / 2 : key.height;
+
+                int sampleSize = 1;
+                while (region.width() / (sampleSize * 2) >= targetWidth
+                        && region.height() / (sampleSize * 2) >= targetHeight) {
+                    sampleSize *= 2;
+                }
+
+                final int sampledWidth = (region.width() + sampleSize - 1) / sampleSize;
+                final int sampledHeight = (region.height() + sampleSize - 1) / sampleSize;
+                final boolean scaleDown = sampledWidth > targetWidth
+                        || sampledHeight > targetHeight;
+
+                final BitmapFactory.Options options = new BitmapFactory.Options();
+                options.inSampleSize = sampleSize;
+                options.inPreferredConfig = Bitmap.Config.ARGB_8888;
+                options.inMutable = true;
+                // a decode that is scaled down afterwards is never cached
+                if (!scaleDown && Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+                    options.inBitmap = takeReusableBitmap(sampledWidth, sampledHeight);
+                }
+                Bitmap bitmap;
+                try {
+                    bitmap = decoder.decodeRegion(region, options);
+                } catch (IllegalArgumentException e) {
+                    // the reused bitmap did not fit after all
+                    options.inBitmap = null;
+                    bitmap = decoder.decodeRegion(region, options);
+                }
+                if (bitmap == null || !scaleDown || cancelled) {
+                    return bitmap;
+                }
+                return scaleDown(bitmap, targetWidth, targetHeight);
+            } catch (IOException e) {
+                return null;
+            } finally {
+                if (decoder != null) {
+                    decoder.recycle();
+                }
+                if (in != null) {
+                    try {
+                        in.close();
+                    } catch (IOException e) {
+                        // ignore
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Sampling only scales by powers of two, so a decode can be up to twice
+     * the target size in each dimension. Cached at that size a page would take up
+     * to four pages of the cache budget, so it is drawn into a bitmap of the
+     * exact target size instead, the decoded bitmap is recycled.
+     */
+    private Bitmap scaleDown(Bitmap decoded, int width, int height) {
+        Bitmap bitmap = takeReusableBitmap(width, height);
+        if (bitmap == null) {
+            bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+        } else {
+            bitmap.eraseColor(Color.TRANSPARENT);
+        }
+        final Canvas canvas = new Canvas(bitmap);
+        canvas.drawBitmap(decoded, null, new Rect(0, 0, width, height), mScalePaint);
+        decoded.recycle();
+        return bitmap;
+    }
+
+    /**
+     * Sets out to the largest centered region of the image with the aspect
+     * ratio of the page.
+     */
+    private static void centerCrop(int imageWidth, int imageHeight, int pageWidth,
+                                   int pageHeight, Rect out) {
+        if ((long) imageWidth * pageHeight > (long) imageHeight * pageWidth) {
+            final int width = (int) ((long) imageHeight * pageWidth / pageHeight);
+            final int left = (imageWidth - width) / 2;
+            out.set(left, 0, left + width, imageHeight);
+        } else {
+            final int height = (int) ((long) imageWidth * pageHeight / pageWidth);
+            final int top = (imageHeight - height) / 2;
+            out.set(0, top, imageWidth, top + height);
+        }
+    }
+
+}
@@ -0,0 +1,132 @@
+package se.emilsjolander.flipview;
+
+import android.database.DataSetObserver;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+import android.widget.ListAdapter;
+
+/**
+ * Lets an existing ListAdapter be used as a {@link FlipAdapter}. Each holder
+ * is a container the adapter's view is placed in, binding passes the current
+ * view back as the convert view. Prefetch hints are passed on if the adapter
+ * is a {@link PrefetchAdapter}.
+ */
+public class ListAdapterBridge extends FlipAdapter<ListAdapterBridge.Holder> implements PrefetchAdapter {
+
+    public static class Holder extends FlipAdapter.ViewHolder {
+
+        final FrameLayout container;
+
+        Holder(FrameLayout container) {
+            super(container);
+            this.container = container;
+        }
+
+        /**
+         * @return the view returned by the bridged adapter, null before the
+         * holder is bound
+         */
+        public View getView() {
+            return container.getChildCount() > 0 ? container.getChildAt(0) : null;
+        }
+    }
+
+    private final ListAdapter mAdapter;
+
+    public ListAdapterBridge(ListAdapter adapter) {
+        if (adapter == null) {
+            throw new IllegalArgumentException("adapter may not be null");
+        }
+        mAdapter = adapter;
+    }
+
+    public ListAdapter getListAdapter() {
+        return mAdapter;
+    }
+
+    @Override
+    public Holder onCreateViewHolder(ViewGroup parent, int viewType) {
+        return new Holder(new FrameLayout(parent.getContext()));
+    }
+
+    @Override
+    public void onBindViewHolder(Holder holder, int position) {
+        final View convertView = holder.getView();
+        final View v = mAdapter.getView(position, convertView, holder.container);
+        if (v != convertView) {
+            holder.container.removeAllViews();
+            holder.container.addView(v);
+        }
+    }
+
+    @Override
+    public void onPrefetch(int first, int last, boolean forward) {
+        if (mAdapter instanceof PrefetchAdapter) {
+            ((PrefetchAdapter) mAdapter).onPrefetch(first, last, forward);
+        }
+    }
+
+    @Override
+    public void onCancelPrefetch(int first, int last) {
+        if (mAdapter instanceof PrefetchAdapter) {
+            ((PrefetchAdapter) mAdapter).onCancelPrefetch(first, last);
+        }
+    }
+
+    @Override
+    public void registerDataSetObserver(DataSetObserver observer) {
+        mAdapter.registerDataSetObserver(observer);
+    }
+
+    @Override
+    public void unregisterDataSetObserver(DataSetObserver observer) {
+        mAdapter.unregisterDataSetObserver(observer);
+    }
+
+    @Override
+    public int getCount() {
+        return mAdapter.getCount();
+    }
+
+    @Override
+    public Object getItem(int position) {
+        return mAdapter.getItem(position);
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return mAdapter.getItemId(position);
+    }
+
+    @Override
+    public boolean hasStableIds() {
+        return mAdapter.hasStableIds();
+    }
+
+    @Override
+    public int getItemViewType(int position) {
+        return mAdapter.getItemViewType(position);
+    }
+
+    @Override
+    public int getViewTypeCount() {
+        return mAdapter.getViewTypeCount();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return mAdapter.isEmpty();
+    }
+
+    @Override
+    public boolean areAllItemsEnabled() {
+        return mAdapter.areAllItemsEnabled();
+    }
+
+    @Override
+    public boolean isEnabled(int position) {
+        return mAdapter.isEnabled(position);
+    }
+
+}
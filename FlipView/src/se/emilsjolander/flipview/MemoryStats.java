@@ -0,0 +1,218 @@
+package se.emilsjolander.flipview;
+
+import android.graphics.Bitmap;
+import android.graphics.drawable.BitmapDrawable;
+import android.graphics.drawable.Drawable;
+import android.os.Build;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.ImageView;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+/**
+ * A breakdown of the memory held by a {@link FlipView}, taken by
+ * {@link FlipView#getMemoryStats()}. Each category has a count and an
+ * estimate of the bytes it holds.
+ * <p>
+ * Bytes are estimated from the bitmaps that can be found, the bitmaps the
+ * FlipView draws with and those shown by image views and view backgrounds in
+ * its pages, and from the size of hardware layers. Other memory held by the
+ * pages is not counted. A bitmap found more than once is only counted in the
+ * first category it is found in.
+ */
+public class MemoryStats {
+
+    /**
+     * The count and estimated bytes of one category.
+     */
+    public static class Usage {
+
+        private int mCount;
+        private long mBytes;
+
+        Usage() {
+        }
+
+        public int getCount() {
+            return mCount;
+        }
+
+        public long getBytes() {
+            return mBytes;
+        }
+
+        @Override
+        public String toString() {
+            return mCount + " (" + mBytes / 1024 + " KB)";
+        }
+    }
+
+    // hardware layers are 32 bit per pixel
+    private static final int LAYER_BYTES_PER_PIXEL = 4;
+
+    private final Usage mPages = new Usage();
+    private final Usage mCascadeViews = new Usage();
+    private final Usage mScrapViews = new Usage();
+    private final int[] mScrapViewCounts;
+    private final Usage mHardwareLayers = new Usage();
+    private final Usage mOffscreenBitmaps = new Usage();
+
+    private final Set<Bitmap> mCountedBitmaps =
+            Collections.newSetFromMap(new IdentityHashMap<Bitmap, Boolean>());
+
+    MemoryStats(int viewTypeCount) {
+        mScrapViewCounts = new int[viewTypeCount];
+    }
+
+    /**
+     * @return the active pages attached to the FlipView when not flipping in
+     * cascade, at most the previous, current and next one
+     */
+    public Usage getPages() {
+        return mPages;
+    }
+
+    /**
+     * @return the pages attached to the FlipView for a cascade flip
+     */
+    public Usage getCascadeViews() {
+        return mCascadeViews;
+    }
+
+    /**
+     * @return the views kept to be reused as convert views, including pages
+     * kept to show while a page is loaded asynchronously
+     */
+    public Usage getScrapViews() {
+        return mScrapViews;
+    }
+
+    /**
+     * @return the number of scrap views of the view type, placeholders for
+     * asynchronously loaded pages are not included
+     */
+    public int getScrapViewCount(int viewType) {
+        if (viewType < 0 || viewType >= mScrapViewCounts.length) {
+            throw new IllegalArgumentException("Invalid view type " + viewType);
+        }
+        return mScrapViewCounts[viewType];
+    }
+
+    /**
+     * @return the number of view types of the adapter
+     */
+    public int getViewTypeCount() {
+        return mScrapViewCounts.length;
+    }
+
+    /**
+     * @return the hardware layers of pages, both those drawn with a layer by
+     * the FlipView and those set by the adapter, the layer of the FlipView
+     * itself during a cascade flip and those of reduced resolution page
+     * snapshots
+     */
+    public Usage getHardwareLayers() {
+        return mHardwareLayers;
+    }
+
+    /**
+     * @return the bitmaps the FlipView draws pages into, snapshots of pages
+     * and the page shown after a cold start
+     */
+    public Usage getOffscreenBitmaps() {
+        return mOffscreenBitmaps;
+    }
+
+    /**
+     * @return the estimated bytes of all categories
+     */
+    public long getTotalBytes() {
+        return mPages.mBytes + mCascadeViews.mBytes + mScrapViews.mBytes
+                + mHardwareLayers.mBytes + mOffscreenBitmaps.mBytes;
+    }
+
+    void addPage(View v) {
+        addView(mPages, v);
+    }
+
+    void addCascadeView(View v) {
+        addView(mCascadeViews, v);
+    }
+
+    void addScrapView(View v, int viewType) {
+        addView(mScrapViews, v);
+        if (viewType >= 0 && viewType < mScrapViewCounts.length) {
+            mScrapViewCounts[viewType]++;
+        }
+    }
+
+    void addHardwareLayer(View v) {
+        addHardwareLayer(v.getWidth(), v.getHeight());
+    }
+
+    void addHardwareLayer(int width, int height) {
+        mHardwareLayers.mCount++;
+        mHardwareLayers.mBytes += (long) width * height * LAYER_BYTES_PER_PIXEL;
+    }
+
+    void addOffscreenBitmap(Bitmap bitmap) {
+        if (bitmap != null) {
+            mOffscreenBitmaps.mCount++;
+            mOffscreenBitmaps.mBytes += countBitmap(bitmap);
+        }
+    }
+
+    private void addView(Usage usage, View v) {
+        usage.mCount++;
+        usage.mBytes += countBitmaps(v);
+    }
+
+    /**
+     * @return the bytes of the bitmaps in the view tree not counted yet
+     */
+    private long countBitmaps(View v) {
+        long bytes = countBitmap(v.getBackground());
+        if (v instanceof ImageView) {
+            bytes += countBitmap(((ImageView) v).getDrawable());
+        }
+        if (v instanceof ViewGroup) {
+            final ViewGroup group = (ViewGroup) v;
+            for (int i = 0; i < group.getChildCount(); i++) {
+                bytes += countBitmaps(group.getChildAt(i));
+            }
+        }
+        return bytes;
+    }
+
+    private long countBitmap(Drawable drawable) {
+        if (drawable instanceof BitmapDrawable) {
+            return countBitmap(((BitmapDrawable) drawable).getBitmap());
+        }
+        return 0;
+    }
+
+    private long countBitmap(Bitmap bitmap) {
+        if (bitmap == null || bitmap.isRecycled() || !mCountedBitmaps.add(bitmap)) {
+            return 0;
+        }
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) {
+            // includes memory kept for reuse at a larger size
+            return bitmap.getAllocationByteCount();
+        }
+        return bitmap.getByteCount();
+    }
+
+    @Override
+    public String toString() {
+        return "MemoryStats{pages=" + mPages
+                + ", cascadeViews=" + mCascadeViews
+                + ", scrapViews=" + mScrapViews
+                + ", hardwareLayers=" + mHardwareLayers
+                + ", offscreenBitmaps=" + mOffscreenBitmaps
+                + ", totalKB=" + getTotalBytes() / 1024 + "}";
+    }
+
+}
@@ -1,5 +1,5 @@
 package se.emilsjolander.flipview;
 
 public enum OverFlipMode {
-	GLOW, RUBBER_BAND
+	GLOW, RUBBER_BAND, SPRING, CUSTOM
 }
@@ -22,11 +22,30 @@ public interface OverFlipper {
 			float maxFlipDistance);
 
 	/**
+	 * Called when the size of the FlipView changes. Precompute anything that
+	 * only depends on the size here instead of while flipping or drawing.
 	 * 
-	 * @param v
-	 *            the view to apply any drawing onto
+	 * @param width
+	 *            the new width of the FlipView
 	 * 
-	 * @return a boolean flag indicating if the view needs to be invalidated
+	 * @param height
+	 *            the new height of the FlipView
+	 */
+	void onSizeChanged(int width, int height);
+
+	/**
+	 * Draws the over flip effect on top of the pages. The effect is drawn in
+	 * a view of its own, which is drawn again after
+	 * {@link #calculate(float, float, float)} and {@link #overFlipEnded()}
+	 * were called, or when this returns true. The pages are not drawn again
+	 * for it.
+	 * 
+	 * @param c
+	 *            the canvas to draw the effect onto, the size of the
+	 *            FlipView
+	 * 
+	 * @return true if the effect is still animating and needs to be drawn
+	 *         again in the next frame
 	 * 
 	 */
 	boolean draw(Canvas c);
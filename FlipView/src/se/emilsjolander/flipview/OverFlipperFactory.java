@@ -1,14 +1,60 @@
 package se.emilsjolander.flipview;
 
+import java.util.EnumMap;
+import java.util.Map;
 
 public class OverFlipperFactory {
+
+	/**
+	 * Creates the OverFlipper for a FlipView, see
+	 * {@link OverFlipperFactory#register(OverFlipMode, Creator)}.
+	 */
+	public interface Creator {
+		OverFlipper create(FlipView v);
+	}
+
+	private static final Map<OverFlipMode, Creator> sCreators = new EnumMap<OverFlipMode, Creator>(OverFlipMode.class);
+
+	/**
+	 * Use a custom OverFlipper for an over flip mode. This replaces the built
+	 * in OverFlipper of that mode for every FlipView created afterwards, use
+	 * {@link OverFlipMode#CUSTOM} to add one next to the built in modes.
+	 * 
+	 * @param mode
+	 *            the mode to create the OverFlipper for
+	 * 
+	 * @param creator
+	 *            the creator to use, null to go back to the built in
+	 *            OverFlipper
+	 */
+	public static void register(OverFlipMode mode, Creator creator) {
+		synchronized (sCreators) {
+			if (creator == null) {
+				sCreators.remove(mode);
+			} else {
+				sCreators.put(mode, creator);
+			}
+		}
+	}
 	
 	static OverFlipper create(FlipView v, OverFlipMode mode) {
+		final Creator creator;
+		synchronized (sCreators) {
+			creator = sCreators.get(mode);
+		}
+		if (creator != null) {
+			return creator.create(v);
+		}
 		switch(mode) {
 		case GLOW:
+		case CUSTOM:
+			// CUSTOM falls back to the default until something is registered,
+			// it may be set from xml before that happens
 			return new GlowOverFlipper(v);
 		case RUBBER_BAND:
 			return new RubberBandOverFlipper();
+		case SPRING:
+			return new SpringOverFlipper();
 		}
 		return null;
 	}
@@ -0,0 +1,80 @@
+package se.emilsjolander.flipview;
+
+import android.view.View;
+
+/**
+ * Remembers what was last reported to a {@link FlipView.OnPageLifecycleListener}
+ * for each active page and reports the differences to a new state.
+ */
+class PageLifecycleTracker {
+
+    private static final int MAX_PAGES = 3;
+
+    private final View[] mViews = new View[MAX_PAGES];
+    private final int[] mPositions = new int[MAX_PAGES];
+    private final float[] mFractions = new float[MAX_PAGES];
+    private int mCount;
+
+    /**
+     * @param views     the active page views
+     * @param positions their positions
+     * @param fractions how much of each page is visible, 0 - 1
+     * @param count     the number of active pages
+     */
+    void update(FlipView flipView, FlipView.OnPageLifecycleListener listener,
+                View[] views, int[] positions, float[] fractions, int count) {
+        // pages that are no longer active
+        for (int i = mCount - 1; i >= 0; i--) {
+            if (indexOf(views, positions, count, mViews[i], mPositions[i]) < 0) {
+                if (mFractions[i] > 0) {
+                    listener.onPageHidden(flipView, mPositions[i], mViews[i]);
+                }
+                listener.onPageDetached(flipView, mPositions[i], mViews[i]);
+                removeAt(i);
+            }
+        }
+
+        for (int j = 0; j < count; j++) {
+            int i = indexOf(mViews, mPositions, mCount, views[j], positions[j]);
+            if (i < 0) {
+                i = mCount++;
+                mViews[i] = views[j];
+                mPositions[i] = positions[j];
+                mFractions[i] = 0;
+                listener.onPageAttached(flipView, positions[j], views[j]);
+            }
+            final float fraction = fractions[j];
+            if (fraction == mFractions[i]) {
+                continue;
+            }
+            mFractions[i] = fraction;
+            if (fraction <= 0) {
+                listener.onPageHidden(flipView, positions[j], views[j]);
+            } else if (fraction >= 1) {
+                listener.onPageFullyVisible(flipView, positions[j], views[j]);
+            } else {
+                listener.onPagePartiallyVisible(flipView, positions[j], views[j], fraction);
+            }
+        }
+    }
+
+    private static int indexOf(View[] views, int[] positions, int count, View v, int position) {
+        for (int i = 0; i < count; i++) {
+            if (views[i] == v && positions[i] == position) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void removeAt(int index) {
+        for (int i = index; i < mCount - 1; i++) {
+            mViews[i] = mViews[i + 1];
+            mPositions[i] = mPositions[i + 1];
+            mFractions[i] = mFractions[i + 1];
+        }
+        mCount--;
+        mViews[mCount] = null;
+    }
+
+}
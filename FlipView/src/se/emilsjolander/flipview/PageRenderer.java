@@ -0,0 +1,22 @@
+package se.emilsjolander.flipview;
+
+import android.graphics.Canvas;
+
+/**
+ * Draws a page straight into the canvas of a {@link FlipView}, for pages that
+ * do not need a View hierarchy, like full bleed images or pre rendered
+ * layouts. Provided by a {@link PageRendererAdapter}.
+ */
+public interface PageRenderer {
+
+    /**
+     * Draw the page, called on the main thread for every frame the page is
+     * shown in. The canvas may be clipped to half of the page and rotated, so
+     * always draw the whole page.
+     *
+     * @param canvas the canvas, with the top left corner of the page at 0,0
+     * @param width  the width of the page
+     * @param height the height of the page
+     */
+    void draw(Canvas canvas, int width, int height);
+}
@@ -0,0 +1,82 @@
+package se.emilsjolander.flipview;
+
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.BaseAdapter;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * An adapter for pages drawn by a {@link PageRenderer} instead of a View
+ * hierarchy. {@link FlipView} calls the renderers directly when flipping, so
+ * there are no nested views to measure and lay out and no hardware layers.
+ * Every page is still backed by a bare view holding its renderer, and
+ * renderers are recycled together with these views.
+ *
+ * @param <R> the renderer type
+ */
+public abstract class PageRendererAdapter<R extends PageRenderer> extends BaseAdapter {
+
+    // to find the view of a renderer that has to be redrawn
+    private final List<WeakReference<PageRendererView>> mViews = new ArrayList<>();
+
+    /**
+     * Create a renderer for pages of the given type, called only when there
+     * is no renderer of this type to reuse.
+     */
+    public abstract R onCreateRenderer(int viewType);
+
+    /**
+     * Show the item at position with the renderer.
+     */
+    public abstract void onBindRenderer(R renderer, int position);
+
+    /**
+     * Redraw the page of the renderer, for example once an image it draws
+     * has loaded.
+     */
+    public void invalidateRenderer(R renderer) {
+        final Iterator<WeakReference<PageRendererView>> it = mViews.iterator();
+        while (it.hasNext()) {
+            final PageRendererView view = it.next().get();
+            if (view == null) {
+                it.remove();
+            } else if (view.renderer == renderer) {
+                view.invalidateRenderer();
+            }
+        }
+    }
+
+    /**
+     * @return true if the view of the renderer is attached to the FlipView
+     */
+    boolean isRendererAttached(R renderer) {
+        for (WeakReference<PageRendererView> ref : mViews) {
+            final PageRendererView view = ref.get();
+            if (view != null && view.renderer == renderer && view.getParent() != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public final View getView(int position, View convertView, ViewGroup parent) {
+        PageRendererView view;
+        if (convertView instanceof PageRendererView) {
+            view = (PageRendererView) convertView;
+        } else {
+            view = new PageRendererView(parent.getContext(),
+                    onCreateRenderer(getItemViewType(position)));
+            mViews.add(new WeakReference<>(view));
+        }
+        onBindRenderer((R) view.renderer, position);
+        view.invalidateRenderer();
+        return view;
+    }
+
+}
@@ -0,0 +1,38 @@
+package se.emilsjolander.flipview;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.view.View;
+import android.view.ViewParent;
+
+/**
+ * The bare page view of a {@link PageRendererAdapter}. It only holds the
+ * renderer, {@link FlipView} calls the renderer directly when flipping.
+ */
+class PageRendererView extends View {
+
+    final PageRenderer renderer;
+
+    PageRendererView(Context context, PageRenderer renderer) {
+        super(context);
+        this.renderer = renderer;
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        renderer.draw(canvas, getWidth(), getHeight());
+    }
+
+    /**
+     * Redraws the page. The parent is invalidated as well, the renderer may
+     * have been drawn into its canvas directly.
+     */
+    void invalidateRenderer() {
+        invalidate();
+        final ViewParent parent = getParent();
+        if (parent instanceof View) {
+            ((View) parent).invalidate();
+        }
+    }
+
+}
@@ -0,0 +1,293 @@
+package se.emilsjolander.flipview;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Picture;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.view.View;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.Executor;
+
+/**
+ * Keeps a compressed snapshot of the last viewed page of a {@link FlipView}
+ * on disk, by item id. After a cold start it is shown right away, until its
+ * real page has been created and bound. The snapshot is read, decoded and
+ * written on a background executor.
+ * <p>
+ * The adapter should have stable ids, otherwise the snapshot of a position
+ * may show a different item. Pages are stored without transparency. Pages
+ * showing hardware bitmaps can't be drawn in software, for those the
+ * snapshot taken of the same page before is kept, if there is one.
+ */
+public class PageSnapshotCache {
+
+    interface Callback {
+
+        /**
+         * Called on the main thread.
+         *
+         * @param snapshot the snapshot, null if there is none
+         */
+        void onSnapshotLoaded(long id, Bitmap snapshot);
+    }
+
+    private static final String SUFFIX = ".jpg";
+    private static final String LAST_FILE = "last";
+    private static final int QUALITY = 80;
+
+    // created when first used
+    private static class DefaultExecutor {
+        static final Executor INSTANCE = SerialExecutors.create("FlipView snapshot cache",
+                Process.THREAD_PRIORITY_BACKGROUND);
+    }
+
+    private final File mDirectory;
+    private final Executor mExecutor;
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+
+    /**
+     * Reads and writes on a background thread shared by all caches.
+     *
+     * @param directory the directory to keep the snapshot in, only used by
+     *                  this cache
+     */
+    public PageSnapshotCache(File directory) {
+        this(directory, DefaultExecutor.INSTANCE);
+    }
+
+    /**
+     * @param directory the directory to keep the snapshot in, only used by
+     *                  this cache
+     * @param executor  the executor to read and write on, run tasks in order
+     *                  so a snapshot is not read while written
+     */
+    public PageSnapshotCache(File directory, Executor executor) {
+        if (directory == null) {
+            throw new IllegalArgumentException("directory can't be null");
+        }
+        mDirectory = directory;
+        mExecutor = executor;
+    }
+
+    /**
+     * Deletes the snapshot.
+     */
+    public void clear() {
+        mExecutor.execute(new Runnable() {
+
+            @Override
+            public void run() {
+                final File[] files = mDirectory.listFiles();
+                if (files != null) {
+                    for (File file : files) {
+                        file.delete();
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Records the page on the main thread, it is compressed and written on
+     * the executor. Also remembers it as the last viewed page.
+     */
+    void save(final long id, View page) {
+        final int width = page.getWidth();
+        final int height = page.getHeight();
+        if (width <= 0 || height <= 0) {
+            return;
+        }
+        final Picture picture = record(page, width, height);
+        if (picture == null) {
+            setLastId(id);
+            return;
+        }
+
+        mExecutor.execute(new Runnable() {
+
+            @Override
+            public void run() {
+                final Bitmap bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.RGB_565);
+                bitmap.eraseColor(Color.WHITE);
+                try {
+                    picture.draw(new Canvas(bitmap));
+                    write(id, bitmap);
+                } catch (IllegalArgumentException e) {
+                    // a hardware bitmap that was not found when recording
+                    setLastIdNow(id);
+                } catch (IOException e) {
+                    // the page is shown without a snapshot next time
+                } finally {
+                    bitmap.recycle();
+                }
+            }
+        });
+    }
+
+    /**
+     * @return the page recorded for drawing in software, null if it shows
+     * hardware bitmaps
+     */
+    private static Picture record(View page, int width, int height) {
+        if (PageSnapshots.hasHardwareBitmap(page)) {
+            return null;
+        }
+        final Picture picture = new Picture();
+        try {
+            page.draw(picture.beginRecording(width, height));
+        } catch (IllegalArgumentException e) {
+            return null;
+        } finally {
+            picture.endRecording();
+        }
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.P
+                && picture.requiresHardwareAcceleration()) {
+            return null;
+        }
+        return picture;
+    }
+
+    /**
+     * Remembers the page as the last viewed one, without taking a new
+     * snapshot of it.
+     */
+    void setLastId(final long id) {
+        mExecutor.execute(new Runnable() {
+
+            @Override
+            public void run() {
+                setLastIdNow(id);
+            }
+        });
+    }
+
+    private void setLastIdNow(long id) {
+        try {
+            writeLastId(id);
+            trim(id);
+        } catch (IOException e) {
+            // the previous page is shown after a cold start
+        }
+    }
+
+    /**
+     * Loads the snapshot of the last viewed page.
+     */
+    void loadLast(final Callback callback) {
+        mExecutor.execute(new Runnable() {
+
+            @Override
+            public void run() {
+                long id = 0;
+                Bitmap snapshot = null;
+                try {
+                    final File last = new File(mDirectory, LAST_FILE);
+                    if (last.isFile() && last.length() == 8) {
+                        id = readLastId(last);
+                        snapshot = read(id);
+                    }
+                } catch (IOException e) {
+                    snapshot = null;
+                }
+                final long loadedId = id;
+                final Bitmap loadedSnapshot = snapshot;
+                mHandler.post(new Runnable() {
+
+                    @Override
+                    public void run() {
+                        callback.onSnapshotLoaded(loadedId, loadedSnapshot);
+                    }
+                });
+            }
+        });
+    }
+
+    private void write(long id, Bitmap bitmap) throws IOException {
+        if (!mDirectory.isDirectory() && !mDirectory.mkdirs()) {
+            throw new IOException("Can't create " + mDirectory);
+        }
+        // write to a temporary file first, a snapshot is never read half written
+        final File file = getFile(id);
+        final File tmp = new File(mDirectory, file.getName() + ".tmp");
+        final FileOutputStream out = new FileOutputStream(tmp);
+        try {
+            bitmap.compress(Bitmap.CompressFormat.JPEG, QUALITY, out);
+        } finally {
+            out.close();
+        }
+        if (!tmp.renameTo(file)) {
+            tmp.delete();
+            throw new IOException("Can't write " + file);
+        }
+
+        writeLastId(id);
+        trim(id);
+    }
+
+    private void writeLastId(long id) throws IOException {
+        if (!mDirectory.isDirectory() && !mDirectory.mkdirs()) {
+            throw new IOException("Can't create " + mDirectory);
+        }
+        final FileOutputStream out = new FileOutputStream(new File(mDirectory, LAST_FILE));
+        try {
+            out.getChannel().write((ByteBuffer) ByteBuffer.allocate(8).putLong(id).flip());
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Deletes the snapshots of other pages than the last viewed one, only
+     * that one is shown after a cold start.
+     */
+    private void trim(long lastId) {
+        final File[] files = mDirectory.listFiles();
+        if (files == null) {
+            return;
+        }
+        final File last = getFile(lastId);
+        for (File file : files) {
+            if (file.getName().endsWith(SUFFIX) && !file.equals(last)) {
+                file.delete();
+            }
+        }
+    }
+
+    private static long readLastId(File file) throws IOException {
+        final DataInputStream in = new DataInputStream(new FileInputStream(file));
+        try {
+            return in.readLong();
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * @return the snapshot, null if there is none
+     */
+    private Bitmap read(long id) {
+        final File file = getFile(id);
+        if (!file.isFile()) {
+            return null;
+        }
+        final BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inPreferredConfig = Bitmap.Config.RGB_565;
+        return BitmapFactory.decodeFile(file.getPath(), options);
+    }
+
+    private File getFile(long id) {
+        return new File(mDirectory, Long.toHexString(id) + SUFFIX);
+    }
+
+}
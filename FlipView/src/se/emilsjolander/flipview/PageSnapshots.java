@@ -0,0 +1,395 @@
+package se.emilsjolander.flipview;
+
+import android.annotation.TargetApi;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Picture;
+import android.graphics.RecordingCanvas;
+import android.graphics.Rect;
+import android.graphics.RenderNode;
+import android.graphics.drawable.BitmapDrawable;
+import android.graphics.drawable.Drawable;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.ImageView;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Snapshots of the pages drawn during a flip, used at
+ * {@link RenderQuality#SNAPSHOT}. A page is drawn into a snapshot the first
+ * time it is needed and the snapshot is reused until it is cleared, so pages
+ * that keep invalidating, for example with running animations, are not
+ * redrawn every frame. Snapshots can be taken at a reduced resolution for
+ * fast flips, where detail can't be seen anyway.
+ * <p>
+ * From API 29 a hardware accelerated canvas gets {@link RenderNode}
+ * snapshots. The page is only recorded on the UI thread and rasterized by
+ * the RenderThread, reduced resolution snapshots into a layer of their size.
+ * These also work for pages showing hardware bitmaps.
+ * <p>
+ * Otherwise pages are drawn into bitmaps in software. Pages showing hardware
+ * bitmaps can't be, they are drawn live instead. At most one such snapshot
+ * is taken on the UI thread per frame, the other pages are drawn live until
+ * a later frame. With an executor the page is only recorded into a
+ * {@link Picture} on the UI thread and the picture is rasterized on the
+ * executor. The picture refers to the bitmaps of the page, so this is only
+ * safe if pages don't recycle or change the bitmaps they show meanwhile.
+ */
+class PageSnapshots {
+
+    interface Callback {
+
+        /**
+         * Called on the main thread when a snapshot rasterized on the
+         * executor is ready.
+         */
+        void onSnapshotReady();
+    }
+
+    // the previous, current and next page
+    private static final int MAX_SNAPSHOTS = 3;
+    // software snapshots taken on the UI thread per frame
+    private static final int MAX_SYNC_SNAPSHOTS_PER_FRAME = 1;
+
+    private final View[] mViews = new View[MAX_SNAPSHOTS];
+    private final Bitmap[] mBitmaps = new Bitmap[MAX_SNAPSHOTS];
+    // RenderNodes from API 29, kept as Object so this class loads before
+    private final Object[] mNodes = new Object[MAX_SNAPSHOTS];
+    // the size and kind of the snapshot in each slot, also while it is rasterized
+    private final int[] mWidths = new int[MAX_SNAPSHOTS];
+    private final int[] mHeights = new int[MAX_SNAPSHOTS];
+    private final boolean[] mIsNode = new boolean[MAX_SNAPSHOTS];
+    // the RenderNode is rasterized into a layer of the snapshot size
+    private final boolean[] mHasLayer = new boolean[MAX_SNAPSHOTS];
+    // the page can't be drawn in software, it is drawn live
+    private final boolean[] mIsLive = new boolean[MAX_SNAPSHOTS];
+    private final Rasterizer[] mRasterizers = new Rasterizer[MAX_SNAPSHOTS];
+    private final long[] mLastUsed = new long[MAX_SNAPSHOTS];
+    private final Canvas mCanvas = new Canvas();
+    private final Paint mPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+    private final Rect mRect = new Rect();
+    private long mUseCount;
+    private int mSyncSnapshots;
+
+    private final Callback mCallback;
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+    private Executor mExecutor;
+    // rasterizations started before a release are dropped
+    private int mGeneration;
+
+    PageSnapshots(Callback callback) {
+        mCallback = callback;
+    }
+
+    /**
+     * @param executor the executor to rasterize software snapshots on, null
+     *                 to draw them on the UI thread
+     */
+    void setExecutor(Executor executor) {
+        mExecutor = executor;
+    }
+
+    /**
+     * Called before each frame is drawn.
+     */
+    void newFrame() {
+        mSyncSnapshots = 0;
+    }
+
+    /**
+     * Draws the snapshot of the view over its bounds, taking it first if
+     * there is none.
+     *
+     * @param scale the resolution of the snapshot relative to the view, 0 - 1
+     * @return false if nothing was drawn, the view has no size, its snapshot
+     * is not ready yet or it can't be taken. The page has to be drawn live.
+     */
+    boolean draw(Canvas canvas, View v, float scale) {
+        final int width = (int) Math.ceil(v.getWidth() * scale);
+        final int height = (int) Math.ceil(v.getHeight() * scale);
+        if (width <= 0 || height <= 0) {
+            return false;
+        }
+        final boolean node = Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q
+                && canvas.isHardwareAccelerated();
+
+        // the snapshot of this view, else a free slot, else the least recently used
+        int slot = -1;
+        for (int i = 0; i < MAX_SNAPSHOTS; i++) {
+            if (mViews[i] == v) {
+                if (mWidths[i] == width && mHeights[i] == height && mIsNode[i] == node) {
+                    mLastUsed[i] = ++mUseCount;
+                    return drawSlot(canvas, i, v, scale);
+                }
+                slot = i;
+                break;
+            }
+            if (slot < 0 || (mViews[slot] != null && (mViews[i] == null
+                    || mLastUsed[i] < mLastUsed[slot]))) {
+                slot = i;
+            }
+        }
+
+        if (!node && mExecutor == null && mSyncSnapshots >= MAX_SYNC_SNAPSHOTS_PER_FRAME) {
+            // try again in a later frame
+            return false;
+        }
+
+        mViews[slot] = v;
+        mWidths[slot] = width;
+        mHeights[slot] = height;
+        mIsNode[slot] = node;
+        mHasLayer[slot] = node && scale < 1;
+        mIsLive[slot] = false;
+        mLastUsed[slot] = ++mUseCount;
+        // a rasterization still running for the previous owner is dropped
+        mRasterizers[slot] = null;
+
+        if (node) {
+            if (mNodes[slot] == null) {
+                mNodes[slot] = NodeSnapshots.create();
+            }
+            NodeSnapshots.record(mNodes[slot], v, width, height, scale);
+            return drawSlot(canvas, slot, v, scale);
+        }
+
+        if (hasHardwareBitmap(v)) {
+            mIsLive[slot] = true;
+            return false;
+        }
+
+        if (mExecutor == null) {
+            mSyncSnapshots++;
+            final Bitmap bitmap = obtainBitmap(mBitmaps[slot], width, height);
+            mBitmaps[slot] = bitmap;
+            mCanvas.setBitmap(bitmap);
+            mCanvas.save();
+            mCanvas.scale(scale, scale);
+            try {
+                v.draw(mCanvas);
+            } catch (IllegalArgumentException e) {
+                // a hardware bitmap that was not found in the view tree
+                mIsLive[slot] = true;
+            } finally {
+                mCanvas.restore();
+                mCanvas.setBitmap(null);
+            }
+            return drawSlot(canvas, slot, v, scale);
+        }
+
+        final Picture picture = new Picture();
+        final Canvas recording = picture.beginRecording(width, height);
+        recording.scale(scale, scale);
+        try {
+            v.draw(recording);
+        } catch (IllegalArgumentException e) {
+            mIsLive[slot] = true;
+        } finally {
+            picture.endRecording();
+        }
+        if (mIsLive[slot] || (Build.VERSION.SDK_INT >= Build.VERSION_CODES.P
+                && picture.requiresHardwareAcceleration())) {
+            mIsLive[slot] = true;
+            return false;
+        }
+
+        // the bitmap is handed to the executor, it can't be drawn meanwhile
+        final Rasterizer rasterizer = new Rasterizer(slot, mGeneration, picture, mBitmaps[slot]);
+        mBitmaps[slot] = null;
+        mRasterizers[slot] = rasterizer;
+        mExecutor.execute(rasterizer);
+        return false;
+    }
+
+    private boolean drawSlot(Canvas canvas, int slot, View v, float scale) {
+        if (mIsLive[slot]) {
+            return false;
+        }
+        if (mIsNode[slot]) {
+            NodeSnapshots.draw(canvas, mNodes[slot], v, scale);
+            return true;
+        }
+        if (mRasterizers[slot] != null || mBitmaps[slot] == null) {
+            return false;
+        }
+        mRect.set(v.getLeft(), v.getTop(), v.getRight(), v.getBottom());
+        canvas.drawBitmap(mBitmaps[slot], null, mRect, mPaint);
+        return true;
+    }
+
+    private void onRasterized(Rasterizer rasterizer) {
+        final int slot = rasterizer.slot;
+        if (mRasterizers[slot] == rasterizer) {
+            mRasterizers[slot] = null;
+            mBitmaps[slot] = rasterizer.bitmap;
+            mIsLive[slot] = rasterizer.failed;
+            mCallback.onSnapshotReady();
+        } else if (rasterizer.generation == mGeneration && mBitmaps[slot] == null
+                && mRasterizers[slot] == null) {
+            // no longer wanted, keep the bitmap for the next snapshot
+            mBitmaps[slot] = rasterizer.bitmap;
+        }
+        // otherwise left to the garbage collector, it may still be drawn
+    }
+
+    /**
+     * @return true if the view tree shows a hardware bitmap, which can't be
+     * drawn in software
+     */
+    static boolean hasHardwareBitmap(View v) {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.O) {
+            return false;
+        }
+        if (isHardwareBitmap(v.getBackground())) {
+            return true;
+        }
+        if (v instanceof ImageView && isHardwareBitmap(((ImageView) v).getDrawable())) {
+            return true;
+        }
+        if (v instanceof ViewGroup) {
+            final ViewGroup group = (ViewGroup) v;
+            for (int i = 0; i < group.getChildCount(); i++) {
+                if (hasHardwareBitmap(group.getChildAt(i))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @TargetApi(Build.VERSION_CODES.O)
+    private static boolean isHardwareBitmap(Drawable drawable) {
+        if (!(drawable instanceof BitmapDrawable)) {
+            return false;
+        }
+        final Bitmap bitmap = ((BitmapDrawable) drawable).getBitmap();
+        return bitmap != null && bitmap.getConfig() == Bitmap.Config.HARDWARE;
+    }
+
+    /**
+     * @return bitmap if it has the size, else a new bitmap. Cleared either way.
+     */
+    private static Bitmap obtainBitmap(Bitmap bitmap, int width, int height) {
+        if (bitmap != null && bitmap.getWidth() == width && bitmap.getHeight() == height) {
+            bitmap.eraseColor(Color.TRANSPARENT);
+            return bitmap;
+        }
+        return Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+    }
+
+    /**
+     * Forgets all snapshots, the bitmaps are reused for the next ones.
+     */
+    void clear() {
+        for (int i = 0; i < MAX_SNAPSHOTS; i++) {
+            mViews[i] = null;
+            mWidths[i] = 0;
+            mHeights[i] = 0;
+            mIsLive[i] = false;
+            mHasLayer[i] = false;
+            mRasterizers[i] = null;
+        }
+    }
+
+    /**
+     * Forgets all snapshots and drops their bitmaps. Frames already recorded
+     * may still draw them, so they are left to the garbage collector.
+     */
+    void release() {
+        clear();
+        mGeneration++;
+        for (int i = 0; i < MAX_SNAPSHOTS; i++) {
+            mBitmaps[i] = null;
+            mNodes[i] = null;
+        }
+    }
+
+    /**
+     * Adds the snapshot bitmaps and layers to the stats. Bitmaps being
+     * rasterized belong to the executor meanwhile and are not counted.
+     */
+    void addTo(MemoryStats stats) {
+        for (int i = 0; i < MAX_SNAPSHOTS; i++) {
+            stats.addOffscreenBitmap(mBitmaps[i]);
+            if (mHasLayer[i] && mNodes[i] != null) {
+                stats.addHardwareLayer(mWidths[i], mHeights[i]);
+            }
+        }
+    }
+
+    /**
+     * Snapshots recorded into RenderNodes, only loaded from API 29.
+     */
+    @TargetApi(Build.VERSION_CODES.Q)
+    private static class NodeSnapshots {
+
+        static Object create() {
+            return new RenderNode("FlipView page snapshot");
+        }
+
+        static void record(Object snapshot, View v, int width, int height, float scale) {
+            final RenderNode node = (RenderNode) snapshot;
+            node.setPosition(0, 0, width, height);
+            // reduced resolution snapshots are rasterized into a layer of their size
+            node.setUseCompositingLayer(scale < 1, null);
+            final RecordingCanvas canvas = node.beginRecording(width, height);
+            try {
+                canvas.scale(scale, scale);
+                v.draw(canvas);
+            } finally {
+                node.endRecording();
+            }
+        }
+
+        static void draw(Canvas canvas, Object snapshot, View v, float scale) {
+            canvas.save();
+            canvas.translate(v.getLeft(), v.getTop());
+            canvas.scale(1 / scale, 1 / scale);
+            canvas.drawRenderNode((RenderNode) snapshot);
+            canvas.restore();
+        }
+    }
+
+    /**
+     * Replays a recorded page into a bitmap on the executor.
+     */
+    private class Rasterizer implements Runnable {
+
+        final int slot;
+        final int generation;
+        private final Picture mPicture;
+        Bitmap bitmap;
+        boolean failed;
+
+        Rasterizer(int slot, int generation, Picture picture, Bitmap bitmap) {
+            this.slot = slot;
+            this.generation = generation;
+            mPicture = picture;
+            this.bitmap = bitmap;
+        }
+
+        @Override
+        public void run() {
+            bitmap = obtainBitmap(bitmap, mPicture.getWidth(), mPicture.getHeight());
+            try {
+                new Canvas(bitmap).drawPicture(mPicture);
+            } catch (IllegalArgumentException e) {
+                failed = true;
+            }
+            mHandler.post(new Runnable() {
+
+                @Override
+                public void run() {
+                    onRasterized(Rasterizer.this);
+                }
+            });
+        }
+    }
+
+}
@@ -0,0 +1,160 @@
+package se.emilsjolander.flipview;
+
+/**
+ * A sequence of granular adapter changes. Used by {@link FlipView} to find
+ * where its active pages moved to, so that only the pages whose items were
+ * removed or changed have to be rebound.
+ */
+class PageUpdates {
+
+    static final int REMOVED = -1;
+
+    private static final int OP_ADD = 0;
+    private static final int OP_REMOVE = 1;
+    private static final int OP_CHANGE = 2;
+    private static final int OP_MOVE = 3;
+
+    // ops stored as (type, a, b) triples
+    private int[] mOps = new int[3 * 8];
+    private int mOpCount;
+    private int mCountDelta;
+    private boolean mFullUpdate;
+
+    void add(int positionStart, int itemCount) {
+        if (itemCount > 0) {
+            append(OP_ADD, positionStart, itemCount);
+            mCountDelta += itemCount;
+        }
+    }
+
+    void remove(int positionStart, int itemCount) {
+        if (itemCount > 0) {
+            append(OP_REMOVE, positionStart, itemCount);
+            mCountDelta -= itemCount;
+        }
+    }
+
+    void change(int positionStart, int itemCount) {
+        if (itemCount > 0) {
+            append(OP_CHANGE, positionStart, itemCount);
+        }
+    }
+
+    void move(int fromPosition, int toPosition) {
+        if (fromPosition != toPosition) {
+            append(OP_MOVE, fromPosition, toPosition);
+        }
+    }
+
+    /**
+     * Appends the ops of other, to be applied after the ones already here.
+     */
+    void addAll(PageUpdates other) {
+        if (other.mFullUpdate) {
+            setFullUpdate();
+        }
+        mCountDelta += other.mCountDelta;
+        for (int i = 0; i < other.mOpCount * 3; i += 3) {
+            append(other.mOps[i], other.mOps[i + 1], other.mOps[i + 2]);
+        }
+    }
+
+    /**
+     * Everything may have changed, the individual ops are no longer of use.
+     */
+    void setFullUpdate() {
+        mFullUpdate = true;
+        mOpCount = 0;
+    }
+
+    boolean isFullUpdate() {
+        return mFullUpdate;
+    }
+
+    boolean isEmpty() {
+        return !mFullUpdate && mOpCount == 0;
+    }
+
+    /**
+     * @return how much the item count changed
+     */
+    int getCountDelta() {
+        return mCountDelta;
+    }
+
+    void clear() {
+        mOpCount = 0;
+        mCountDelta = 0;
+        mFullUpdate = false;
+    }
+
+    private void append(int type, int a, int b) {
+        if (mFullUpdate) {
+            return;
+        }
+        final int index = mOpCount * 3;
+        if (index == mOps.length) {
+            final int[] ops = new int[mOps.length * 2];
+            System.arraycopy(mOps, 0, ops, 0, index);
+            mOps = ops;
+        }
+        mOps[index] = type;
+        mOps[index + 1] = a;
+        mOps[index + 2] = b;
+        mOpCount++;
+    }
+
+    /**
+     * @return the position of the item after all updates, or REMOVED
+     */
+    int mapPosition(int position) {
+        return map(position, false);
+    }
+
+    /**
+     * @return true if the item at this position was removed or changed
+     */
+    boolean isChanged(int position) {
+        return map(position, true) == REMOVED;
+    }
+
+    private int map(int position, boolean removeChanged) {
+        for (int i = 0; i < mOpCount * 3; i += 3) {
+            final int a = mOps[i + 1];
+            final int b = mOps[i + 2];
+            switch (mOps[i]) {
+                case OP_ADD:
+                    if (position >= a) {
+                        position += b;
+                    }
+                    break;
+                case OP_REMOVE:
+                    if (position >= a + b) {
+                        position -= b;
+                    } else if (position >= a) {
+                        return REMOVED;
+                    }
+                    break;
+                case OP_CHANGE:
+                    if (removeChanged && position >= a && position < a + b) {
+                        return REMOVED;
+                    }
+                    break;
+                case OP_MOVE:
+                    if (position == a) {
+                        position = b;
+                    } else {
+                        if (position > a) {
+                            position--;
+                        }
+                        if (position >= b) {
+                            position++;
+                        }
+                    }
+                    break;
+            }
+        }
+        return position;
+    }
+
+}
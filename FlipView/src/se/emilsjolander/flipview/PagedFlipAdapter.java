@@ -0,0 +1,383 @@
+package se.emilsjolander.flipview;
+
+import android.os.AsyncTask;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.SparseArray;
+import android.util.SparseBooleanArray;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.ViewParent;
+import android.widget.BaseAdapter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * An adapter for very large or endless feeds. Items are loaded in fixed size
+ * windows on a background executor as the pages around them are requested,
+ * only a bounded number of windows is kept in memory. Positions that are not
+ * loaded yet show a placeholder, which is replaced once its window arrives.
+ *
+ * @param <T> the item type
+ */
+public abstract class PagedFlipAdapter<T> extends BaseAdapter implements PrefetchAdapter {
+
+    /**
+     * Provides the items of a {@link PagedFlipAdapter}.
+     */
+    public interface DataSource<T> {
+
+        /**
+         * Called on the main thread. For endless feeds return the number of
+         * items known so far and call notifyDataSetChanged on the adapter when
+         * it grows.
+         *
+         * @return the total number of items
+         */
+        int getCount();
+
+        /**
+         * Called on a background thread.
+         *
+         * @param start the position of the first item to load
+         * @param count the number of items to load, fewer may be returned at
+         *              the end of the feed
+         * @return the loaded items, null if loading failed. The window is
+         * requested again the next time one of its positions is shown. A
+         * RuntimeException thrown here counts as a failed load.
+         */
+        List<T> load(int start, int count);
+    }
+
+    private static final int VIEW_TYPE_ITEM = 0;
+    private static final int VIEW_TYPE_PLACEHOLDER = 1;
+
+    private static final int DEFAULT_MAX_LOADED_WINDOWS = 3;
+
+    private static class BoundPage {
+        int position;
+        boolean placeholder;
+    }
+
+    private static class MainThreadExecutor implements Executor {
+
+        private final Handler mHandler = new Handler(Looper.getMainLooper());
+
+        @Override
+        public void execute(Runnable command) {
+            mHandler.post(command);
+        }
+    }
+
+    private final DataSource<T> mDataSource;
+    private final int mWindowSize;
+    private final Executor mExecutor;
+    // delivers loaded windows on the main thread
+    private final Executor mMainThreadExecutor;
+
+    private final SparseArray<List<T>> mWindows = new SparseArray<List<T>>();
+    private final SparseBooleanArray mLoadingWindows = new SparseBooleanArray();
+    // the views returned by getView and what they show, bound while attached
+    private final Map<View, BoundPage> mBoundPages = new WeakHashMap<View, BoundPage>();
+    private int mMaxLoadedWindows = DEFAULT_MAX_LOADED_WINDOWS;
+    private int mPrefetchDistance;
+    private int mLastRequestedWindow;
+    // loads started before a refresh are dropped
+    private int mGeneration;
+
+    /**
+     * Loads on {@link AsyncTask#THREAD_POOL_EXECUTOR}.
+     *
+     * @param windowSize the number of items loaded at a time
+     */
+    public PagedFlipAdapter(DataSource<T> dataSource, int windowSize) {
+        this(dataSource, windowSize, AsyncTask.THREAD_POOL_EXECUTOR);
+    }
+
+    /**
+     * @param windowSize the number of items loaded at a time
+     * @param executor   the executor windows are loaded on
+     */
+    public PagedFlipAdapter(DataSource<T> dataSource, int windowSize, Executor executor) {
+        this(dataSource, windowSize, executor, new MainThreadExecutor());
+    }
+
+    /**
+     * @param mainThreadExecutor the executor loaded windows are delivered on,
+     *                           tests deliver them in place
+     */
+    PagedFlipAdapter(DataSource<T> dataSource, int windowSize, Executor executor,
+                     Executor mainThreadExecutor) {
+        if (windowSize < 1) {
+            throw new IllegalArgumentException("Can't have a windowSize < 1");
+        }
+        mDataSource = dataSource;
+        mWindowSize = windowSize;
+        mExecutor = executor;
+        mMainThreadExecutor = mainThreadExecutor;
+        mPrefetchDistance = Math.max(1, windowSize / 4);
+    }
+
+    /**
+     * @param maxLoadedWindows how many windows to keep in memory, the ones
+     *                         furthest from the current page are dropped
+     *                         first. At least 2, the default is 3.
+     */
+    public void setMaxLoadedWindows(int maxLoadedWindows) {
+        if (maxLoadedWindows < 2) {
+            throw new IllegalArgumentException("Can't keep less than 2 windows loaded");
+        }
+        mMaxLoadedWindows = maxLoadedWindows;
+        trimWindows();
+    }
+
+    /**
+     * @param prefetchDistance how close to the edge of a window a page has to
+     *                         be for the neighbouring window to be loaded.
+     *                         Defaults to a quarter of the window size.
+     */
+    public void setPrefetchDistance(int prefetchDistance) {
+        mPrefetchDistance = Math.max(0, prefetchDistance);
+    }
+
+    /**
+     * Drops all loaded windows, they are loaded again from the data source as
+     * their pages are shown.
+     */
+    public void refresh() {
+        mGeneration++;
+        mWindows.clear();
+        mLoadingWindows.clear();
+        notifyDataSetChanged();
+    }
+
+    /**
+     * Create or bind the view of a loaded item.
+     */
+    public abstract View getItemView(int position, T item, View convertView, ViewGroup parent);
+
+    /**
+     * Create or bind the view shown while the item at this position loads.
+     */
+    public abstract View getPlaceholderView(int position, View convertView, ViewGroup parent);
+
+    @Override
+    public int getCount() {
+        return mDataSource.getCount();
+    }
+
+    /**
+     * @return the item, or null if it is not loaded
+     */
+    @Override
+    public T getItem(int position) {
+        final List<T> window = mWindows.get(position / mWindowSize);
+        final int index = position % mWindowSize;
+        if (window == null || index >= window.size()) {
+            return null;
+        }
+        return window.get(index);
+    }
+
+    public boolean isLoaded(int position) {
+        return getItem(position) != null;
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return position;
+    }
+
+    @Override
+    public int getViewTypeCount() {
+        return 2;
+    }
+
+    @Override
+    public int getItemViewType(int position) {
+        return isLoaded(position) ? VIEW_TYPE_ITEM : VIEW_TYPE_PLACEHOLDER;
+    }
+
+    @Override
+    public View getView(int position, View convertView, ViewGroup parent) {
+        final int window = position / mWindowSize;
+        mLastRequestedWindow = window;
+        requestWindow(window);
+
+        // load ahead when the reader approaches either edge of the window
+        final int index = position % mWindowSize;
+        if (index < mPrefetchDistance && window > 0) {
+            requestWindow(window - 1);
+        }
+        if (index >= mWindowSize - mPrefetchDistance
+                && (window + 1) * mWindowSize < getCount()) {
+            requestWindow(window + 1);
+        }
+
+        final T item = getItem(position);
+        final View v = item == null ? getPlaceholderView(position, convertView, parent)
+                : getItemView(position, item, convertView, parent);
+        BoundPage page = mBoundPages.get(v);
+        if (page == null) {
+            page = new BoundPage();
+            mBoundPages.put(v, page);
+        }
+        page.position = position;
+        page.placeholder = item == null;
+        return v;
+    }
+
+    /**
+     * Loads the windows of the pages FlipView expects to show next.
+     */
+    @Override
+    public void onPrefetch(int first, int last, boolean forward) {
+        final int firstWindow = first / mWindowSize;
+        final int lastWindow = last / mWindowSize;
+        // never prefetch more windows than can be kept
+        final int count = Math.min(lastWindow - firstWindow + 1, mMaxLoadedWindows - 1);
+        for (int i = 0; i < count; i++) {
+            requestWindow(forward ? firstWindow + i : lastWindow - i);
+        }
+    }
+
+    @Override
+    public void onCancelPrefetch(int first, int last) {
+        // loads are not cancelled, a loaded window is likely to be needed
+    }
+
+    private void requestWindow(final int window) {
+        final int start = window * mWindowSize;
+        final int count = Math.min(mWindowSize, getCount() - start);
+        if (count <= 0 || mWindows.get(window) != null || mLoadingWindows.get(window)) {
+            return;
+        }
+        mLoadingWindows.put(window, true);
+        final int generation = mGeneration;
+        mExecutor.execute(new Runnable() {
+
+            @Override
+            public void run() {
+                List<T> items;
+                try {
+                    items = mDataSource.load(start, count);
+                } catch (RuntimeException e) {
+                    items = null;
+                }
+                final List<T> result = items;
+                mMainThreadExecutor.execute(new Runnable() {
+
+                    @Override
+                    public void run() {
+                        onWindowLoaded(generation, window, result);
+                    }
+                });
+            }
+        });
+    }
+
+    private void onWindowLoaded(int generation, int window, List<T> items) {
+        if (generation != mGeneration) {
+            return;
+        }
+        mLoadingWindows.delete(window);
+        if (items == null) {
+            return;
+        }
+        mWindows.put(window, items);
+        trimWindows();
+
+        // only rebind where the reader may be looking at a placeholder of this window
+        final List<FlipView> flipViews = new ArrayList<FlipView>();
+        boolean shownElsewhere = false;
+        for (Map.Entry<View, BoundPage> entry : mBoundPages.entrySet()) {
+            final BoundPage page = entry.getValue();
+            final View v = entry.getKey();
+            if (!page.placeholder || page.position / mWindowSize != window
+                    || v.getParent() == null) {
+                continue;
+            }
+            final FlipView flipView = findFlipView(v);
+            if (flipView == null) {
+                shownElsewhere = true;
+            } else if (!flipViews.contains(flipView)) {
+                flipViews.add(flipView);
+            }
+        }
+        if (shownElsewhere) {
+            notifyDataSetChanged();
+            return;
+        }
+        // rebinds just the pages of the window, a flip in progress goes on
+        for (FlipView flipView : flipViews) {
+            flipView.notifyItemRangeChanged(window * mWindowSize, items.size());
+        }
+    }
+
+    /**
+     * @return the FlipView the view is a page of, directly or within a
+     * {@link ListAdapterBridge} holder, if this is the adapter it shows
+     */
+    private FlipView findFlipView(View v) {
+        ViewParent parent = v.getParent();
+        while (parent != null && !(parent instanceof FlipView)) {
+            parent = parent.getParent();
+        }
+        if (parent == null) {
+            return null;
+        }
+        final FlipView flipView = (FlipView) parent;
+        final Object adapter = flipView.getAdapter();
+        if (adapter == this || (adapter instanceof ListAdapterBridge
+                && ((ListAdapterBridge) adapter).getListAdapter() == this)) {
+            return flipView;
+        }
+        return null;
+    }
+
+    /**
+     * @return the windows of the pages attached to the FlipView
+     */
+    private SparseBooleanArray getBoundWindows() {
+        final SparseBooleanArray windows = new SparseBooleanArray();
+        for (Map.Entry<View, BoundPage> entry : mBoundPages.entrySet()) {
+            if (entry.getKey().getParent() != null) {
+                windows.put(entry.getValue().position / mWindowSize, true);
+            }
+        }
+        return windows;
+    }
+
+    /**
+     * Drops the windows furthest from the last requested one until at most
+     * mMaxLoadedWindows are left. Windows of attached pages are never
+     * dropped, more are kept meanwhile if needed.
+     */
+    private void trimWindows() {
+        if (mWindows.size() <= mMaxLoadedWindows) {
+            return;
+        }
+        final SparseBooleanArray boundWindows = getBoundWindows();
+        while (mWindows.size() > mMaxLoadedWindows) {
+            int furthestIndex = -1;
+            int furthestDistance = -1;
+            for (int i = 0; i < mWindows.size(); i++) {
+                final int window = mWindows.keyAt(i);
+                final int distance = Math.abs(window - mLastRequestedWindow);
+                if (!boundWindows.get(window) && distance > furthestDistance) {
+                    furthestDistance = distance;
+                    furthestIndex = i;
+                }
+            }
+            if (furthestIndex < 0) {
+                return;
+            }
+            mWindows.removeAt(furthestIndex);
+        }
+    }
+
+}
@@ -0,0 +1,29 @@
+package se.emilsjolander.flipview;
+
+/**
+ * Implemented by adapters that want to know which pages are likely to be
+ * shown next, so their data and images can be loaded before the pages are
+ * bound. {@link FlipView} predicts the pages from the flip direction, the
+ * touch velocity and the page a fling lands on.
+ */
+public interface PrefetchAdapter {
+
+    /**
+     * Pages first to last are likely to be shown next. Hints may overlap the
+     * previous ones, loading a page that is already loading should be a no-op.
+     *
+     * @param first   the first page, inclusive
+     * @param last    the last page, inclusive
+     * @param forward true if the pages will be reached in increasing order
+     */
+    void onPrefetch(int first, int last, boolean forward);
+
+    /**
+     * Pages first to last are no longer expected, work started for them by
+     * {@link #onPrefetch(int, int, boolean)} can be cancelled.
+     *
+     * @param first the first page, inclusive
+     * @param last  the last page, inclusive
+     */
+    void onCancelPrefetch(int first, int last);
+}
@@ -0,0 +1,109 @@
+package se.emilsjolander.flipview;
+
+/**
+ * Lowers the {@link RenderQuality} of a {@link FlipView} while its flips miss
+ * frames, and raises it again once flips have run smoothly for a while.
+ * Frames are timed from one flip frame to the next, a frame that takes more
+ * than one and a half frame budgets has missed at least one vsync.
+ */
+class QualityGovernor {
+
+    // the number of frames judged at a time
+    private static final int WINDOW = 20;
+    // a window that missed more frames than this lowers the quality
+    private static final int MAX_MISSED_FRAMES = 3;
+    // windows without a missed frame needed to raise the quality again,
+    // doubled each time a raise has to be taken back right away so the
+    // quality does not keep toggling on a device at its limit
+    private static final int MIN_CLEAN_WINDOWS = 2;
+    private static final int MAX_CLEAN_WINDOWS = 32;
+    private static final long DEFAULT_FRAME_BUDGET = 1000000000L / 60;// in ns
+
+    private long mFrameBudget = DEFAULT_FRAME_BUDGET;
+    private RenderQuality mQuality = RenderQuality.FULL;
+    private RenderQuality mMinQuality = RenderQuality.SNAPSHOT;
+
+    private long mLastFrameTime;
+    private int mFrames;
+    private int mMissedFrames;
+    private int mCleanWindows;
+    private int mRequiredCleanWindows = MIN_CLEAN_WINDOWS;
+    // true during the first window after the quality was raised
+    private boolean mIsRaised;
+
+    /**
+     * @param frameBudget the duration of one frame in ns
+     */
+    void setFrameBudget(long frameBudget) {
+        mFrameBudget = frameBudget > 0 ? frameBudget : DEFAULT_FRAME_BUDGET;
+    }
+
+    /**
+     * @param minQuality the lowest quality to drop to
+     */
+    void setMinQuality(RenderQuality minQuality) {
+        mMinQuality = minQuality;
+        if (mQuality.ordinal() > minQuality.ordinal()) {
+            mQuality = minQuality;
+        }
+    }
+
+    RenderQuality getQuality() {
+        return mQuality;
+    }
+
+    /**
+     * Call for every frame drawn during a flip.
+     *
+     * @param frameTime the time the frame started drawing at, in ns
+     * @return true if the quality changed
+     */
+    boolean onFrame(long frameTime) {
+        final long lastFrameTime = mLastFrameTime;
+        mLastFrameTime = frameTime;
+        if (lastFrameTime == 0) {
+            return false;
+        }
+        mFrames++;
+        if ((frameTime - lastFrameTime) * 2 > mFrameBudget * 3) {
+            mMissedFrames++;
+        }
+        if (mFrames < WINDOW) {
+            return false;
+        }
+
+        final int missedFrames = mMissedFrames;
+        final boolean isRaised = mIsRaised;
+        mFrames = 0;
+        mMissedFrames = 0;
+        mIsRaised = false;
+
+        if (missedFrames > MAX_MISSED_FRAMES) {
+            mCleanWindows = 0;
+            if (isRaised) {
+                mRequiredCleanWindows = Math.min(mRequiredCleanWindows * 2, MAX_CLEAN_WINDOWS);
+            }
+            if (mQuality.ordinal() < mMinQuality.ordinal()) {
+                mQuality = RenderQuality.values()[mQuality.ordinal() + 1];
+                return true;
+            }
+        } else if (missedFrames > 0) {
+            mCleanWindows = 0;
+        } else if (mQuality != RenderQuality.FULL && ++mCleanWindows >= mRequiredCleanWindows) {
+            mCleanWindows = 0;
+            mIsRaised = true;
+            mQuality = RenderQuality.values()[mQuality.ordinal() - 1];
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Call when no flip is drawn, the time until the next flip frame is not
+     * a frame duration.
+     */
+    void pause() {
+        mLastFrameTime = 0;
+    }
+
+}
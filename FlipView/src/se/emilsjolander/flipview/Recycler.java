@@ -7,10 +7,13 @@ public class Recycler {
 
     static class Scrap {
         View v;
+        // only set for pages of a FlipAdapter
+        FlipAdapter.ViewHolder holder;
         boolean valid;
 
-        public Scrap(View scrap, boolean valid) {
+        public Scrap(View scrap, FlipAdapter.ViewHolder holder, boolean valid) {
             this.v = scrap;
+            this.holder = holder;
             this.valid = valid;
         }
     }
@@ -57,11 +60,21 @@ public class Recycler {
     /**
      * Put a view into the ScrapViews list. These views are unordered.
      *
-     * @param scrap The view to add
+     * @param scrap  The view to add
+     * @param holder The holder of the view, null if the adapter is not a
+     *               FlipAdapter
      */
-    void addScrapView(View scrap, int position, int viewType) {
+    void addScrapView(View scrap, FlipAdapter.ViewHolder holder, int position, int viewType) {
+        addScrapView(scrap, holder, position, viewType, true);
+    }
+
+    /**
+     * @param valid false if the view is not bound to the position
+     */
+    void addScrapView(View scrap, FlipAdapter.ViewHolder holder, int position, int viewType,
+                      boolean valid) {
         // create a new Scrap
-        Scrap item = new Scrap(scrap, true);
+        Scrap item = new Scrap(scrap, holder, valid);
 
         if (viewTypeCount == 1) {
             currentScraps.put(position, item);
@@ -89,6 +102,36 @@ public class Recycler {
         return null;
     }
 
+    /**
+     * Drops all scrap views.
+     */
+    void clear() {
+        if (scraps == null) {
+            return;
+        }
+        for (SparseArray<Scrap> array : scraps) {
+            array.clear();
+        }
+    }
+
+    /**
+     * Adds the scrap views to the stats, by view type.
+     */
+    void addTo(MemoryStats stats) {
+        if (scraps == null) {
+            return;
+        }
+        for (int type = 0; type < scraps.length; type++) {
+            for (int i = 0; i < scraps[type].size(); i++) {
+                stats.addScrapView(scraps[type].valueAt(i).v, type);
+            }
+        }
+    }
+
+    int getViewTypeCount() {
+        return viewTypeCount;
+    }
+
     void invalidateScraps() {
         for (SparseArray<Scrap> array : scraps) {
             for (int i = 0; i < array.size(); i++) {
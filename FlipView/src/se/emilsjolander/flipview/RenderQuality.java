@@ -0,0 +1,31 @@
+package se.emilsjolander.flipview;
+
+/**
+ * How much of the flip effects a {@link FlipView} draws. Every level drops
+ * the effects of the levels above it, effects disabled by the app stay
+ * disabled at every level.
+ */
+public enum RenderQuality {
+
+    /**
+     * Everything that is enabled is drawn.
+     */
+    FULL,
+
+    /**
+     * No gradient and no shades and shines on the turning half.
+     */
+    REDUCED,
+
+    /**
+     * Also no shadows on the halves that do not turn and no over flip
+     * effects.
+     */
+    LOW,
+
+    /**
+     * Also the pages are drawn from snapshots taken the first time they are
+     * shown during a flip, instead of being redrawn every frame.
+     */
+    SNAPSHOT
+}
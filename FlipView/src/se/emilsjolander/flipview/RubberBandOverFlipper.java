@@ -4,12 +4,45 @@ import android.graphics.Canvas;
 
 public class RubberBandOverFlipper implements OverFlipper {
 
-	private static final float MAX_OVER_FLIP_DISTANCE = 70;
+	static final float MAX_OVER_FLIP_DISTANCE = 70;
 	private static final float EXPONENTIAL_DECREES = 0.85f;
+
+	// the response curve |totalOverFlip|^EXPONENTIAL_DECREES, sampled until it
+	// reaches MAX_OVER_FLIP_DISTANCE so no pow is needed while flipping
+	private static final int TABLE_STEPS_PER_UNIT = 4;
+	private static final float MAX_TOTAL_OVER_FLIP = (float) Math.pow(
+			MAX_OVER_FLIP_DISTANCE, 1 / EXPONENTIAL_DECREES);
+	private static final float[] RESPONSE_TABLE = createResponseTable();
 	
 	private float mTotalOverFlip;
 	private float mCurrentOverFlip;
 
+	private static float[] createResponseTable() {
+		final int size = (int) Math.ceil(MAX_TOTAL_OVER_FLIP * TABLE_STEPS_PER_UNIT) + 2;
+		final float[] table = new float[size];
+		for (int i = 0; i < size; i++) {
+			table[i] = Math.min(MAX_OVER_FLIP_DISTANCE, (float) Math.pow(
+					i / (float) TABLE_STEPS_PER_UNIT, EXPONENTIAL_DECREES));
+		}
+		return table;
+	}
+
+	/**
+	 * @param totalOverFlip
+	 *            a positive total over flip
+	 * 
+	 * @return the over flip to show for it, interpolated from the table
+	 */
+	private static float response(float totalOverFlip) {
+		if (totalOverFlip >= MAX_TOTAL_OVER_FLIP) {
+			return MAX_OVER_FLIP_DISTANCE;
+		}
+		final float position = totalOverFlip * TABLE_STEPS_PER_UNIT;
+		final int index = (int) position;
+		final float fraction = position - index;
+		return RESPONSE_TABLE[index] + (RESPONSE_TABLE[index + 1] - RESPONSE_TABLE[index]) * fraction;
+	}
+
 	@Override
 	public float calculate(float flipDistance, float minFlipDistance,
 			float maxFlipDistance) {
@@ -23,20 +56,16 @@ public class RubberBandOverFlipper implements OverFlipper {
 		
 		mTotalOverFlip += deltaOverFlip;
 		
-		float sign = Math.signum(mTotalOverFlip);
-		
-		mCurrentOverFlip = (float) Math.pow(Math.abs(mTotalOverFlip), EXPONENTIAL_DECREES) * sign;
-		
-		
-		if(mCurrentOverFlip < 0) {
-			mCurrentOverFlip = Math.max(-MAX_OVER_FLIP_DISTANCE, mCurrentOverFlip);
-		}else {
-			mCurrentOverFlip = Math.min(MAX_OVER_FLIP_DISTANCE, mCurrentOverFlip);
-		}
+		mCurrentOverFlip = mTotalOverFlip < 0 ? -response(-mTotalOverFlip) : response(mTotalOverFlip);
 		
 		return mCurrentOverFlip + (mCurrentOverFlip < 0 ? minFlipDistance : maxFlipDistance);
 	}
 
+	@Override
+	public void onSizeChanged(int width, int height) {
+		// the response does not depend on the size
+	}
+
 	@Override
 	public boolean draw(Canvas c) {
 		return false;
@@ -0,0 +1,50 @@
+package se.emilsjolander.flipview;
+
+import android.os.Process;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Executors with a thread of their own, so background work of the FlipView
+ * does not wait behind every other AsyncTask of the app.
+ */
+class SerialExecutors {
+
+    private static final long KEEP_ALIVE_SECONDS = 30;
+
+    private SerialExecutors() {
+    }
+
+    /**
+     * @param name     the name of the thread
+     * @param priority the priority of the thread, one of the
+     *                 Process.THREAD_PRIORITY_ constants
+     * @return an executor running one task at a time in order. Its thread
+     * stops while there is nothing to do.
+     */
+    static Executor create(final String name, final int priority) {
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1,
+                KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+                new ThreadFactory() {
+
+                    @Override
+                    public Thread newThread(final Runnable r) {
+                        return new Thread(new Runnable() {
+
+                            @Override
+                            public void run() {
+                                Process.setThreadPriority(priority);
+                                r.run();
+                            }
+                        }, name);
+                    }
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+}
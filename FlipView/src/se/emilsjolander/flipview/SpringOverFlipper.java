@@ -0,0 +1,88 @@
+package se.emilsjolander.flipview;
+
+import android.view.animation.AnimationUtils;
+
+/**
+ * Resists over flipping like a rubber band while dragging, and springs back
+ * to the first or last page on release, carrying the release velocity into
+ * the over flip instead of clamping at the edge.
+ */
+public class SpringOverFlipper extends RubberBandOverFlipper implements VelocityOverFlipper {
+
+	private static final float STIFFNESS = 400;
+	private static final float DAMPING_RATIO = 0.75f;
+	private static final float REST_DISTANCE = 0.5f;
+	private static final float REST_VELOCITY = 5;// per second
+
+	private static final float NATURAL_FREQUENCY = (float) Math.sqrt(STIFFNESS);
+	private static final float DECAY = DAMPING_RATIO * NATURAL_FREQUENCY;
+	private static final float DAMPED_FREQUENCY = NATURAL_FREQUENCY
+			* (float) Math.sqrt(1 - DAMPING_RATIO * DAMPING_RATIO);
+	// velocities above this would spring past MAX_OVER_FLIP_DISTANCE
+	private static final float MAX_VELOCITY = MAX_OVER_FLIP_DISTANCE * NATURAL_FREQUENCY;
+
+	private boolean mIsReleasing;
+	private long mStartTime;
+	private float mEdgeFlipDistance;
+	private float mMinFlipDistance;
+	private float mMaxFlipDistance;
+	private float mStartOffset;
+	private float mStartVelocity;
+	private float mReleaseFlipDistance;
+
+	@Override
+	public boolean startRelease(float flipDistance, float velocity,
+			float edgeFlipDistance, float minFlipDistance, float maxFlipDistance) {
+		mEdgeFlipDistance = edgeFlipDistance;
+		mMinFlipDistance = minFlipDistance;
+		mMaxFlipDistance = maxFlipDistance;
+		mStartOffset = flipDistance - edgeFlipDistance;
+		mStartVelocity = Math.max(-MAX_VELOCITY, Math.min(MAX_VELOCITY, velocity));
+		mStartTime = AnimationUtils.currentAnimationTimeMillis();
+		mReleaseFlipDistance = flipDistance;
+		mIsReleasing = true;
+		return true;
+	}
+
+	@Override
+	public boolean computeRelease() {
+		if (!mIsReleasing) {
+			return false;
+		}
+
+		// under damped spring, x(t) = e^(-DECAY t) (a cos(wt) + b sin(wt))
+		final float t = (AnimationUtils.currentAnimationTimeMillis() - mStartTime) / 1000f;
+		final float a = mStartOffset;
+		final float b = (mStartVelocity + DECAY * mStartOffset) / DAMPED_FREQUENCY;
+		final float decay = (float) Math.exp(-DECAY * t);
+		final float cos = (float) Math.cos(DAMPED_FREQUENCY * t);
+		final float sin = (float) Math.sin(DAMPED_FREQUENCY * t);
+		final float offset = decay * (a * cos + b * sin);
+		final float velocity = decay * ((DAMPED_FREQUENCY * b - DECAY * a) * cos
+				- (DECAY * b + DAMPED_FREQUENCY * a) * sin);
+
+		if (Math.abs(offset) < REST_DISTANCE && Math.abs(velocity) < REST_VELOCITY) {
+			mIsReleasing = false;
+			mReleaseFlipDistance = mEdgeFlipDistance;
+			return false;
+		}
+
+		// never spring so far past an edge that another page would be shown
+		float flipDistance = mEdgeFlipDistance + offset;
+		flipDistance = Math.min(flipDistance, mMaxFlipDistance + MAX_OVER_FLIP_DISTANCE);
+		flipDistance = Math.max(flipDistance, mMinFlipDistance - MAX_OVER_FLIP_DISTANCE);
+		mReleaseFlipDistance = flipDistance;
+		return true;
+	}
+
+	@Override
+	public float getReleaseFlipDistance() {
+		return mReleaseFlipDistance;
+	}
+
+	@Override
+	public void abortRelease() {
+		mIsReleasing = false;
+	}
+
+}
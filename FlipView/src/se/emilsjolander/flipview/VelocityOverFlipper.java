@@ -0,0 +1,56 @@
+package se.emilsjolander.flipview;
+
+/**
+ * An OverFlipper which takes over from the FlipView when a flip is released
+ * while over flipping, or flung towards the first or last page, and animates
+ * back to that page itself using the release velocity.
+ */
+public interface VelocityOverFlipper extends OverFlipper {
+
+	/**
+	 * 
+	 * @param flipDistance
+	 *            the flip distance when released
+	 * 
+	 * @param velocity
+	 *            the release velocity in flip distance per second, positive
+	 *            towards the next page
+	 * 
+	 * @param edgeFlipDistance
+	 *            the flip distance of the page to come to rest on, either
+	 *            minFlipDistance or maxFlipDistance
+	 * 
+	 * @param minFlipDistance
+	 *            the minimum flip distance, usually 0
+	 * 
+	 * @param maxFlipDistance
+	 *            the maximum flip distance
+	 * 
+	 * @return true if a release animation was started, false to let the
+	 *         FlipView settle as usual
+	 */
+	boolean startRelease(float flipDistance, float velocity,
+			float edgeFlipDistance, float minFlipDistance, float maxFlipDistance);
+
+	/**
+	 * Called once per frame while releasing, works like
+	 * {@link android.widget.Scroller#computeScrollOffset()}.
+	 * 
+	 * @return true if the release animation has not yet finished
+	 */
+	boolean computeRelease();
+
+	/**
+	 * 
+	 * @return the flip distance to show for the current frame, the edge flip
+	 *         distance once the release has finished
+	 */
+	float getReleaseFlipDistance();
+
+	/**
+	 * Triggered when the user touches the FlipView while releasing. Stop the
+	 * release animation where it is.
+	 */
+	void abortRelease();
+
+}
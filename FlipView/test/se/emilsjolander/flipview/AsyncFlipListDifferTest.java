@@ -0,0 +1,174 @@
+package se.emilsjolander.flipview;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class AsyncFlipListDifferTest {
+
+    /**
+     * Items are the same by id and look the same by content.
+     */
+    private static class Item {
+
+        final int id;
+        final int content;
+
+        Item(int id, int content) {
+            this.id = id;
+            this.content = content;
+        }
+
+        @Override
+        public String toString() {
+            return id + ":" + content;
+        }
+    }
+
+    private final AsyncFlipListDiffer<Item> mDiffer = new AsyncFlipListDiffer<>(null,
+            new AsyncFlipListDiffer.ItemCallback<Item>() {
+
+                @Override
+                public boolean areItemsTheSame(Item oldItem, Item newItem) {
+                    return oldItem.id == newItem.id;
+                }
+
+                @Override
+                public boolean areContentsTheSame(Item oldItem, Item newItem) {
+                    return oldItem.content == newItem.content;
+                }
+            }, new Executor() {
+
+                @Override
+                public void execute(Runnable command) {
+                    command.run();
+                }
+            });
+
+    private static List<Item> items(int... ids) {
+        final List<Item> items = new ArrayList<>();
+        for (int id : ids) {
+            items.add(new Item(id, 0));
+        }
+        return items;
+    }
+
+    /**
+     * Every old item has to map to the position of its id in the new list,
+     * or be removed if the id is gone, and count as changed exactly if it
+     * was removed or its content changed.
+     */
+    private static void assertMapsOnto(PageUpdates updates, List<Item> oldList,
+                                       List<Item> newList) {
+        assertFalse(updates.isFullUpdate());
+        assertEquals(newList.size() - oldList.size(), updates.getCountDelta());
+        for (int i = 0; i < oldList.size(); i++) {
+            final Item item = oldList.get(i);
+            int expected = PageUpdates.REMOVED;
+            boolean changed = true;
+            for (int j = 0; j < newList.size(); j++) {
+                if (newList.get(j).id == item.id) {
+                    expected = j;
+                    changed = newList.get(j).content != item.content;
+                }
+            }
+            assertEquals("position of " + item, expected, updates.mapPosition(i));
+            assertEquals("change of " + item, changed, updates.isChanged(i));
+        }
+    }
+
+    @Test
+    public void sameListsHaveNoUpdates() {
+        final PageUpdates updates = mDiffer.diff(items(1, 2, 3), items(1, 2, 3));
+        assertTrue(updates.isEmpty());
+    }
+
+    @Test
+    public void findsInsertsAndRemoves() {
+        final List<Item> oldList = items(1, 2, 3, 4, 5);
+        final List<Item> newList = items(0, 1, 3, 6, 4, 5, 7);
+        assertMapsOnto(mDiffer.diff(oldList, newList), oldList, newList);
+    }
+
+    @Test
+    public void findsChangedContents() {
+        final List<Item> oldList = items(1, 2, 3, 4);
+        final List<Item> newList = Arrays.asList(new Item(1, 0), new Item(2, 1),
+                new Item(3, 1), new Item(4, 0));
+        final PageUpdates updates = mDiffer.diff(oldList, newList);
+        assertMapsOnto(updates, oldList, newList);
+    }
+
+    @Test
+    public void movedItemIsRemovedAndInsertedAgain() {
+        final PageUpdates updates = mDiffer.diff(items(1, 2, 3), items(2, 3, 1));
+        assertEquals(PageUpdates.REMOVED, updates.mapPosition(0));
+        assertEquals(0, updates.mapPosition(1));
+        assertEquals(1, updates.mapPosition(2));
+    }
+
+    @Test
+    public void mapsRandomEdits() {
+        final Random random = new Random(42);
+        for (int run = 0; run < 200; run++) {
+            final List<Item> oldList = new ArrayList<>();
+            final int size = random.nextInt(40);
+            for (int i = 0; i < size; i++) {
+                oldList.add(new Item(i, 0));
+            }
+            // removes, inserts of new ids and content changes keep the order
+            final List<Item> newList = new ArrayList<>();
+            int nextId = size;
+            for (Item item : oldList) {
+                while (random.nextInt(4) == 0) {
+                    newList.add(new Item(nextId++, 0));
+                }
+                final int edit = random.nextInt(5);
+                if (edit == 0) {
+                    continue;
+                }
+                newList.add(edit == 1 ? new Item(item.id, 1) : item);
+            }
+            while (random.nextInt(3) == 0) {
+                newList.add(new Item(nextId++, 0));
+            }
+            if (oldList.isEmpty() || newList.isEmpty()) {
+                continue;
+            }
+            assertMapsOnto(mDiffer.diff(oldList, newList), oldList, newList);
+        }
+    }
+
+    @Test
+    public void fallsBackToAFullUpdateForLargeEdits() {
+        final List<Item> oldList = new ArrayList<>();
+        final List<Item> newList = new ArrayList<>();
+        for (int i = 0; i < 600; i++) {
+            oldList.add(new Item(i, 0));
+            newList.add(new Item(1000 + i, 0));
+        }
+        assertTrue(mDiffer.diff(oldList, newList).isFullUpdate());
+    }
+
+    @Test
+    public void diffsLongListsWithFewEdits() {
+        final List<Item> oldList = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            oldList.add(new Item(i, 0));
+        }
+        final List<Item> newList = new ArrayList<>(oldList);
+        newList.remove(2500);
+        newList.add(100, new Item(-1, 0));
+        newList.set(4000, new Item(newList.get(4000).id, 1));
+        assertMapsOnto(mDiffer.diff(oldList, newList), oldList, newList);
+    }
+
+}
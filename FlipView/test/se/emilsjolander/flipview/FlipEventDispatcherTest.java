@@ -0,0 +1,97 @@
+package se.emilsjolander.flipview;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class FlipEventDispatcherTest {
+
+    private FlipEventDispatcher mDispatcher;
+    private final List<String> mCrossings = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        mDispatcher = new FlipEventDispatcher(null);
+        // nothing is posted while detached, the test delivers by calling run()
+        mDispatcher.onDetachedFromWindow();
+        mDispatcher.setOnDistanceThresholdListener(new float[]{180, 90, 270},
+                new FlipView.OnDistanceThresholdListener() {
+
+                    @Override
+                    public void onDistanceThresholdCrossed(FlipView v, float threshold,
+                                                           boolean forward) {
+                        mCrossings.add((forward ? "+" : "-") + (int) threshold);
+                    }
+                });
+    }
+
+    private void assertCrossings(String... expected) {
+        mDispatcher.run();
+        assertEquals(Arrays.asList(expected), mCrossings);
+        mCrossings.clear();
+    }
+
+    @Test
+    public void firstDistanceCrossesNothing() {
+        mDispatcher.dispatchDistance(200);
+        assertCrossings();
+    }
+
+    @Test
+    public void crossesForwardInOrder() {
+        mDispatcher.dispatchDistance(0);
+        mDispatcher.dispatchDistance(100);
+        mDispatcher.dispatchDistance(300);
+        assertCrossings("+90", "+180", "+270");
+    }
+
+    @Test
+    public void crossesBackwardInOrder() {
+        mDispatcher.dispatchDistance(300);
+        mDispatcher.dispatchDistance(0);
+        assertCrossings("-270", "-180", "-90");
+    }
+
+    @Test
+    public void reachingThresholdCountsAsPassed() {
+        mDispatcher.dispatchDistance(0);
+        mDispatcher.dispatchDistance(90);
+        assertCrossings("+90");
+        mDispatcher.dispatchDistance(90);
+        assertCrossings();
+        mDispatcher.dispatchDistance(89);
+        assertCrossings("-90");
+    }
+
+    @Test
+    public void crossingsWithinAFrameAreAllDelivered() {
+        mDispatcher.dispatchDistance(0);
+        mDispatcher.dispatchDistance(100);
+        mDispatcher.dispatchDistance(80);
+        mDispatcher.dispatchDistance(100);
+        assertCrossings("+90", "-90", "+90");
+    }
+
+    @Test
+    public void movingBetweenThresholdsCrossesNothing() {
+        mDispatcher.dispatchDistance(100);
+        mDispatcher.dispatchDistance(170);
+        mDispatcher.dispatchDistance(95);
+        assertCrossings();
+    }
+
+    @Test
+    public void newThresholdsStartOver() {
+        mDispatcher.dispatchDistance(0);
+        mDispatcher.dispatchDistance(100);
+        mDispatcher.setOnDistanceThresholdListener(null, null);
+        mDispatcher.dispatchDistance(300);
+        assertCrossings();
+    }
+
+}
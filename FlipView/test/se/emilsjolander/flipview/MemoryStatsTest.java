@@ -0,0 +1,92 @@
+package se.emilsjolander.flipview;
+
+import android.graphics.Bitmap;
+import android.view.View;
+import android.widget.ImageView;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Runs with Robolectric for real bitmaps and image views.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class MemoryStatsTest {
+
+    private static ImageView imageView(Bitmap bitmap) {
+        final ImageView v = new ImageView(RuntimeEnvironment.application);
+        v.setImageBitmap(bitmap);
+        return v;
+    }
+
+    @Test
+    public void countsTheBitmapsOfPages() {
+        final MemoryStats stats = new MemoryStats(1);
+        stats.addPage(imageView(Bitmap.createBitmap(10, 20, Bitmap.Config.ARGB_8888)));
+        stats.addPage(new View(RuntimeEnvironment.application));
+        assertEquals(2, stats.getPages().getCount());
+        assertEquals(10 * 20 * 4, stats.getPages().getBytes());
+    }
+
+    @Test
+    public void countsABitmapOnlyInTheFirstCategory() {
+        final MemoryStats stats = new MemoryStats(1);
+        final Bitmap bitmap = Bitmap.createBitmap(10, 20, Bitmap.Config.ARGB_8888);
+        stats.addPage(imageView(bitmap));
+        stats.addCascadeView(imageView(bitmap));
+        stats.addOffscreenBitmap(bitmap);
+        assertEquals(10 * 20 * 4, stats.getPages().getBytes());
+        assertEquals(1, stats.getCascadeViews().getCount());
+        assertEquals(0, stats.getCascadeViews().getBytes());
+        assertEquals(1, stats.getOffscreenBitmaps().getCount());
+        assertEquals(0, stats.getOffscreenBitmaps().getBytes());
+        assertEquals(10 * 20 * 4, stats.getTotalBytes());
+    }
+
+    @Test
+    public void skipsMissingAndRecycledBitmaps() {
+        final MemoryStats stats = new MemoryStats(1);
+        final Bitmap recycled = Bitmap.createBitmap(10, 20, Bitmap.Config.ARGB_8888);
+        recycled.recycle();
+        stats.addOffscreenBitmap(null);
+        stats.addOffscreenBitmap(recycled);
+        assertEquals(1, stats.getOffscreenBitmaps().getCount());
+        assertEquals(0, stats.getOffscreenBitmaps().getBytes());
+    }
+
+    @Test
+    public void estimatesHardwareLayersFromTheirSize() {
+        final MemoryStats stats = new MemoryStats(1);
+        stats.addHardwareLayer(100, 50);
+        stats.addHardwareLayer(10, 10);
+        assertEquals(2, stats.getHardwareLayers().getCount());
+        assertEquals((100 * 50 + 10 * 10) * 4, stats.getHardwareLayers().getBytes());
+        assertEquals((100 * 50 + 10 * 10) * 4, stats.getTotalBytes());
+    }
+
+    @Test
+    public void countsScrapViewsPerViewType() {
+        final MemoryStats stats = new MemoryStats(2);
+        stats.addScrapView(new View(RuntimeEnvironment.application), 0);
+        stats.addScrapView(new View(RuntimeEnvironment.application), 1);
+        stats.addScrapView(new View(RuntimeEnvironment.application), 1);
+        // placeholders have no view type
+        stats.addScrapView(new View(RuntimeEnvironment.application), -1);
+        assertEquals(4, stats.getScrapViews().getCount());
+        assertEquals(1, stats.getScrapViewCount(0));
+        assertEquals(2, stats.getScrapViewCount(1));
+        assertEquals(2, stats.getViewTypeCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsUnknownViewTypes() {
+        new MemoryStats(2).getScrapViewCount(2);
+    }
+
+}
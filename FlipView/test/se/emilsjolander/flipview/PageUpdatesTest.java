@@ -0,0 +1,113 @@
+package se.emilsjolander.flipview;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PageUpdatesTest {
+
+    @Test
+    public void addShiftsLaterPositions() {
+        final PageUpdates updates = new PageUpdates();
+        updates.add(3, 2);
+        assertEquals(2, updates.mapPosition(2));
+        assertEquals(5, updates.mapPosition(3));
+        assertEquals(2, updates.getCountDelta());
+    }
+
+    @Test
+    public void removeDropsItsRangeAndShiftsLaterPositions() {
+        final PageUpdates updates = new PageUpdates();
+        updates.remove(3, 2);
+        assertEquals(2, updates.mapPosition(2));
+        assertEquals(PageUpdates.REMOVED, updates.mapPosition(3));
+        assertEquals(PageUpdates.REMOVED, updates.mapPosition(4));
+        assertEquals(3, updates.mapPosition(5));
+        assertTrue(updates.isChanged(4));
+        assertEquals(-2, updates.getCountDelta());
+    }
+
+    @Test
+    public void changeKeepsPositions() {
+        final PageUpdates updates = new PageUpdates();
+        updates.change(3, 2);
+        assertEquals(4, updates.mapPosition(4));
+        assertTrue(updates.isChanged(3));
+        assertTrue(updates.isChanged(4));
+        assertFalse(updates.isChanged(5));
+        assertEquals(0, updates.getCountDelta());
+    }
+
+    @Test
+    public void moveShiftsThePositionsInBetween() {
+        final PageUpdates updates = new PageUpdates();
+        updates.move(1, 4);
+        assertEquals(0, updates.mapPosition(0));
+        assertEquals(4, updates.mapPosition(1));
+        assertEquals(1, updates.mapPosition(2));
+        assertEquals(3, updates.mapPosition(4));
+        assertEquals(5, updates.mapPosition(5));
+
+        final PageUpdates back = new PageUpdates();
+        back.move(4, 1);
+        assertEquals(1, back.mapPosition(4));
+        assertEquals(2, back.mapPosition(1));
+        assertEquals(4, back.mapPosition(3));
+    }
+
+    @Test
+    public void opsApplyInOrder() {
+        final PageUpdates updates = new PageUpdates();
+        updates.remove(0, 1);
+        updates.add(0, 3);
+        // 5 is 4 after the remove, 7 after the add
+        assertEquals(7, updates.mapPosition(5));
+
+        final PageUpdates other = new PageUpdates();
+        other.remove(7, 1);
+        updates.addAll(other);
+        assertEquals(PageUpdates.REMOVED, updates.mapPosition(5));
+        assertEquals(1, updates.getCountDelta());
+    }
+
+    @Test
+    public void emptyRangesAreIgnored() {
+        final PageUpdates updates = new PageUpdates();
+        updates.add(0, 0);
+        updates.remove(0, 0);
+        updates.change(0, 0);
+        updates.move(2, 2);
+        assertTrue(updates.isEmpty());
+    }
+
+    @Test
+    public void fullUpdateDropsTheOps() {
+        final PageUpdates updates = new PageUpdates();
+        updates.add(0, 1);
+        updates.setFullUpdate();
+        updates.add(0, 1);
+        assertTrue(updates.isFullUpdate());
+        assertFalse(updates.isEmpty());
+
+        final PageUpdates other = new PageUpdates();
+        other.addAll(updates);
+        assertTrue(other.isFullUpdate());
+
+        updates.clear();
+        assertTrue(updates.isEmpty());
+        assertEquals(0, updates.getCountDelta());
+    }
+
+    @Test
+    public void growsBeyondTheInitialCapacity() {
+        final PageUpdates updates = new PageUpdates();
+        for (int i = 0; i < 100; i++) {
+            updates.add(0, 1);
+        }
+        assertEquals(100, updates.mapPosition(0));
+        assertEquals(100, updates.getCountDelta());
+    }
+
+}
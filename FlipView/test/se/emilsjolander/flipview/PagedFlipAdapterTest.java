@@ -0,0 +1,277 @@
+package se.emilsjolander.flipview;
+
+import android.view.View;
+import android.view.ViewGroup;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs with Robolectric for the real SparseArray and View classes. Loaded
+ * windows are delivered in place instead of posted to the main thread.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class PagedFlipAdapterTest {
+
+    private static final int WINDOW_SIZE = 10;
+
+    /**
+     * Items are their position, every load is recorded by its start.
+     */
+    private static class DataSource implements PagedFlipAdapter.DataSource<Integer> {
+
+        final List<Integer> loads = new ArrayList<>();
+        int count;
+        boolean failing;
+        boolean throwing;
+
+        DataSource(int count) {
+            this.count = count;
+        }
+
+        @Override
+        public int getCount() {
+            return count;
+        }
+
+        @Override
+        public List<Integer> load(int start, int count) {
+            loads.add(start);
+            if (throwing) {
+                throw new IllegalStateException("load failed");
+            }
+            if (failing) {
+                return null;
+            }
+            final List<Integer> items = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                items.add(start + i);
+            }
+            return items;
+        }
+    }
+
+    private static class QueueExecutor implements Executor {
+
+        final List<Runnable> queue = new ArrayList<>();
+
+        @Override
+        public void execute(Runnable command) {
+            queue.add(command);
+        }
+
+        void runAll() {
+            while (!queue.isEmpty()) {
+                queue.remove(0).run();
+            }
+        }
+    }
+
+    private static final Executor DIRECT = new Executor() {
+
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        }
+    };
+
+    private static class Adapter extends PagedFlipAdapter<Integer> {
+
+        Adapter(DataSource dataSource, Executor executor) {
+            super(dataSource, WINDOW_SIZE, executor, DIRECT);
+        }
+
+        @Override
+        public View getItemView(int position, Integer item, View convertView, ViewGroup parent) {
+            return new View(RuntimeEnvironment.application);
+        }
+
+        @Override
+        public View getPlaceholderView(int position, View convertView, ViewGroup parent) {
+            return new View(RuntimeEnvironment.application);
+        }
+    }
+
+    @Test
+    public void getViewLoadsItsWindow() {
+        final DataSource source = new DataSource(100);
+        final Adapter adapter = new Adapter(source, DIRECT);
+        adapter.getView(15, null, null);
+        assertEquals(Arrays.asList(10), source.loads);
+        assertEquals(Integer.valueOf(15), adapter.getItem(15));
+        assertFalse(adapter.isLoaded(25));
+    }
+
+    @Test
+    public void loadsNeighbourWindowsNearTheEdges() {
+        final DataSource source = new DataSource(100);
+        final Adapter adapter = new Adapter(source, DIRECT);
+        // a quarter of the window from either edge
+        adapter.getView(18, null, null);
+        assertEquals(Arrays.asList(10, 20), source.loads);
+        adapter.getView(11, null, null);
+        assertEquals(Arrays.asList(10, 20, 0), source.loads);
+    }
+
+    @Test
+    public void loadsNothingBeyondTheEnds() {
+        final DataSource source = new DataSource(WINDOW_SIZE);
+        final Adapter adapter = new Adapter(source, DIRECT);
+        adapter.getView(0, null, null);
+        adapter.getView(WINDOW_SIZE - 1, null, null);
+        assertEquals(Arrays.asList(0), source.loads);
+    }
+
+    @Test
+    public void loadsTheShortLastWindow() {
+        final DataSource source = new DataSource(25);
+        final Adapter adapter = new Adapter(source, DIRECT);
+        adapter.getView(22, null, null);
+        assertEquals(Arrays.asList(20), source.loads);
+        assertTrue(adapter.isLoaded(24));
+        assertNull(adapter.getItem(25));
+    }
+
+    @Test
+    public void dropsWindowsFurthestFromTheLastRequested() {
+        final DataSource source = new DataSource(100);
+        final Adapter adapter = new Adapter(source, DIRECT);
+        adapter.getView(45, null, null);
+        adapter.getView(35, null, null);
+        adapter.getView(25, null, null);
+        adapter.getView(15, null, null);
+        assertFalse(adapter.isLoaded(45));
+        assertTrue(adapter.isLoaded(35));
+        assertTrue(adapter.isLoaded(25));
+        assertTrue(adapter.isLoaded(15));
+    }
+
+    @Test
+    public void keepsFewerWindowsOnceTheLimitIsLowered() {
+        final DataSource source = new DataSource(100);
+        final Adapter adapter = new Adapter(source, DIRECT);
+        adapter.getView(5, null, null);
+        adapter.getView(15, null, null);
+        adapter.getView(25, null, null);
+        adapter.setMaxLoadedWindows(2);
+        assertFalse(adapter.isLoaded(5));
+        assertTrue(adapter.isLoaded(15));
+        assertTrue(adapter.isLoaded(25));
+    }
+
+    @Test
+    public void prefetchLoadsNoMoreWindowsThanAreKept() {
+        final DataSource source = new DataSource(100);
+        final Adapter adapter = new Adapter(source, DIRECT);
+        adapter.onPrefetch(0, 99, true);
+        assertEquals(Arrays.asList(0, 10), source.loads);
+
+        source.loads.clear();
+        adapter.refresh();
+        adapter.onPrefetch(0, 99, false);
+        assertEquals(Arrays.asList(90, 80), source.loads);
+    }
+
+    @Test
+    public void requestsAWindowOnceWhileItLoads() {
+        final DataSource source = new DataSource(100);
+        final QueueExecutor executor = new QueueExecutor();
+        final Adapter adapter = new Adapter(source, executor);
+        adapter.getView(5, null, null);
+        adapter.getView(6, null, null);
+        executor.runAll();
+        assertEquals(Arrays.asList(0), source.loads);
+        assertTrue(adapter.isLoaded(6));
+    }
+
+    @Test
+    public void refreshDropsLoadsInFlight() {
+        final DataSource source = new DataSource(100);
+        final QueueExecutor executor = new QueueExecutor();
+        final Adapter adapter = new Adapter(source, executor);
+        adapter.getView(5, null, null);
+        adapter.refresh();
+        executor.runAll();
+        assertFalse(adapter.isLoaded(5));
+
+        adapter.getView(5, null, null);
+        executor.runAll();
+        assertTrue(adapter.isLoaded(5));
+    }
+
+    @Test
+    public void failedWindowIsRequestedAgain() {
+        final DataSource source = new DataSource(100);
+        final Adapter adapter = new Adapter(source, DIRECT);
+        source.failing = true;
+        adapter.getView(5, null, null);
+        assertFalse(adapter.isLoaded(5));
+
+        source.failing = false;
+        adapter.getView(5, null, null);
+        assertEquals(Arrays.asList(0, 0), source.loads);
+        assertTrue(adapter.isLoaded(5));
+    }
+
+    @Test
+    public void throwingLoadIsRequestedAgain() {
+        final DataSource source = new DataSource(100);
+        final Adapter adapter = new Adapter(source, DIRECT);
+        source.throwing = true;
+        adapter.getView(5, null, null);
+        assertFalse(adapter.isLoaded(5));
+
+        source.throwing = false;
+        adapter.getView(5, null, null);
+        assertEquals(Arrays.asList(0, 0), source.loads);
+        assertTrue(adapter.isLoaded(5));
+    }
+
+    @Test
+    public void viewTypeFollowsTheLoadedState() {
+        final DataSource source = new DataSource(100);
+        final QueueExecutor executor = new QueueExecutor();
+        final Adapter adapter = new Adapter(source, executor);
+        adapter.getView(5, null, null);
+        assertEquals(1, adapter.getItemViewType(5));
+        executor.runAll();
+        assertEquals(0, adapter.getItemViewType(5));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsEmptyWindows() {
+        new PagedFlipAdapter<Integer>(new DataSource(100), 0, DIRECT) {
+
+            @Override
+            public View getItemView(int position, Integer item, View convertView,
+                                    ViewGroup parent) {
+                return null;
+            }
+
+            @Override
+            public View getPlaceholderView(int position, View convertView, ViewGroup parent) {
+                return null;
+            }
+        };
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsKeepingLessThanTwoWindows() {
+        new Adapter(new DataSource(100), DIRECT).setMaxLoadedWindows(1);
+    }
+
+}